@@ -0,0 +1,161 @@
+package com.snake.game;
+
+import com.snake.bot.BotPolicy;
+import com.snake.bot.HamiltonianPolicy;
+import com.snake.graphics.Direction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Game-tick hot path, one benchmark per phase of GameEngine.step() (the old
+ * GamePanel move/checkCollision/checkFood/spawnFood) plus barrier generation.
+ * Lives in com.snake.game so it can call the package-private tick phases.
+ *
+ * The snake follows HamiltonianPolicy and is grown to snakeLength (capped at a
+ * quarter of the board) before measuring. step() and move() then look up the
+ * cycle's direction for the head cell in a precomputed table, so the policy
+ * isn't part of the measured time. A Hamiltonian walk can't route a
+ * long snake around barriers, so the moving engine is grown on an empty board
+ * and then switched to the benchmark level; checkCollision() probes a board
+ * with the level's barriers instead. Food is taken off the board so step()
+ * and move() keep a constant length, and checkFood() measures eating on its
+ * own. The score is parked far below the level threshold so the level never
+ * changes mid-run. Run with -prof gc for allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineBenchmark {
+    private static final int PROBES = 1024;
+
+    @Param({"24", "100", "256"})
+    int boardSize;
+
+    @Param({"3", "100", "1000"})
+    int snakeLength;
+
+    @Param({"1", "5", "10"})
+    int level;
+
+    private final BotPolicy policy = new HamiltonianPolicy();
+    // HamiltonianPolicy's choice per head cell; the moving engine has no barriers to step around
+    private Direction[] cycle;
+    private GameEngine engine;
+    private GameEngine barrierEngine;
+    private final int[] probes = new int[PROBES];
+    private int probe;
+
+    private OccupancyGrid barrierGrid;
+    private FreeCellSet barrierFree;
+    private final int[] barrierCells = new int[Barriers.getMaxCount()];
+    private GameRandom barrierRandom;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        cycle = new Direction[boardSize * boardSize];
+        for (int cell = 0; cell < cycle.length; cell++) {
+            cycle[cell] = HamiltonianPolicy.cycleDirection(boardSize, boardSize, cell % boardSize, cell / boardSize);
+        }
+        engine = newEngine();
+        barrierEngine = new GameEngine(boardSize, boardSize, level, 0, 3);
+
+        GameRandom random = new GameRandom(7);
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = random.nextInt(boardSize * boardSize);
+        }
+
+        barrierGrid = new OccupancyGrid(boardSize, boardSize);
+        barrierFree = new FreeCellSet(boardSize * boardSize);
+        barrierFree.fill();
+        barrierRandom = new GameRandom(11);
+    }
+
+    private GameEngine newEngine() {
+        int target = Math.min(snakeLength, boardSize * boardSize / 4);
+        for (long seed = 1; seed < 1000; seed++) {
+            GameEngine candidate = new GameEngine(boardSize, boardSize, 1, 0, seed);
+            candidate.reset(target);
+            candidate.setLevel(level); // after reset, so no barriers are placed
+            candidate.setScore(Integer.MIN_VALUE / 2); // never reaches the level threshold
+            while (candidate.isAlive() && candidate.getSnakeLength() < target) {
+                candidate.step(policy.chooseDirection(candidate));
+            }
+            if (candidate.isAlive()) {
+                candidate.setPendingGrowth(0);
+                candidate.clearFood();
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("Could not grow a snake of length " + target);
+    }
+
+    @Benchmark
+    public int step() {
+        int events = engine.step(cycle[engine.getHead()]);
+        if (!engine.isAlive()) {
+            engine = newEngine(); // not expected on a barrier-free cycle
+        }
+        return events;
+    }
+
+    @Benchmark
+    public int move() {
+        engine.turn(cycle[engine.getHead()]);
+        int target = engine.nextHeadCell();
+        if (target < 0 || engine.checkCollision(target)) {
+            engine = newEngine();
+            return -1;
+        }
+        engine.move(target);
+        return target;
+    }
+
+    @Benchmark
+    public boolean checkCollision() {
+        return barrierEngine.checkCollision(probes[probe++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public int checkFood() {
+        // Eat (grow, score, spawn the next food), then undo so state stays steady
+        int events = engine.eatFood();
+        engine.setPendingGrowth(0);
+        engine.clearFood();
+        return events;
+    }
+
+    @Benchmark
+    public int spawnFood() {
+        engine.clearFood();
+        engine.spawnFood();
+        return engine.getFood();
+    }
+
+    @Benchmark
+    public int generateBarriers() {
+        int head = (boardSize / 2) * boardSize + boardSize / 2;
+        int count = Barriers.generate(level, barrierGrid, barrierFree, head, barrierRandom, barrierCells);
+        // Undo so every invocation starts from an empty board
+        for (int i = 0; i < count; i++) {
+            barrierGrid.clear(barrierCells[i]);
+            barrierFree.add(barrierCells[i]);
+        }
+        return count;
+    }
+}
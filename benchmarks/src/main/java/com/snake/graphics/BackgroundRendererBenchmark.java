@@ -0,0 +1,69 @@
+package com.snake.graphics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-screen background for every level, once per frame in the game: drawn
+ * from scratch, and blitted from a BackgroundLayer with level-10 barriers and
+ * the grid (the layer is built in setup, so this measures the cached path).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class BackgroundRendererBenchmark {
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10"})
+    int level;
+
+    private final int[] barriers = new int[45];
+    private BackgroundLayer layer;
+    private BufferedImage image;
+    private Graphics2D g2d;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        image = RenderTarget.newImage(RenderTarget.SCREEN_WIDTH, RenderTarget.SCREEN_HEIGHT);
+        g2d = RenderTarget.newGraphics(image);
+
+        for (int i = 0; i < barriers.length; i++) {
+            barriers[i] = (i * 97) % RenderTarget.CELLS;
+        }
+        layer = new BackgroundLayer(RenderTarget.UNIT_SIZE);
+        cachedLayer();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g2d.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage drawBackground() {
+        BackgroundRenderer.drawBackground(g2d, RenderTarget.SCREEN_WIDTH, RenderTarget.SCREEN_HEIGHT, level);
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage cachedLayer() {
+        layer.draw(g2d, RenderTarget.SCREEN_WIDTH, RenderTarget.SCREEN_HEIGHT, level, barriers, barriers.length);
+        return image;
+    }
+}
@@ -0,0 +1,67 @@
+package com.snake.graphics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One food item per call, for each fruit path (0 apple, 1 orange, 2 lemon
+ * spiral, 3 grape, 4 strawberry seeds), drawn from scratch and as a
+ * FoodSprites frame. The cell is drawn away from the image edge so the stem
+ * and leaf above it are not clipped.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class FoodRendererBenchmark {
+    @Param({"0", "1", "2", "3", "4"})
+    int fruit;
+
+    private FoodRenderer renderer;
+    private FoodSprites sprites;
+    private long phase;
+    private BufferedImage image;
+    private Graphics2D g2d;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        renderer = new FoodRenderer(fruit);
+        sprites = new FoodSprites(RenderTarget.UNIT_SIZE);
+        image = RenderTarget.newImage(RenderTarget.UNIT_SIZE * 3, RenderTarget.UNIT_SIZE * 3);
+        g2d = RenderTarget.newGraphics(image);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g2d.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage drawFood() {
+        renderer.drawFood(g2d, RenderTarget.UNIT_SIZE, RenderTarget.UNIT_SIZE, RenderTarget.UNIT_SIZE);
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage drawSprite() {
+        sprites.draw(g2d, fruit, phase++, RenderTarget.UNIT_SIZE, RenderTarget.UNIT_SIZE);
+        return image;
+    }
+}
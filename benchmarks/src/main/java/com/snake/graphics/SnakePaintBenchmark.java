@@ -0,0 +1,77 @@
+package com.snake.graphics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole snake per call, laid out as a zigzag over the 24x24 board, painted
+ * with the SnakeRenderer shapes and with the SnakeSprites atlas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class SnakePaintBenchmark {
+    @Param({"3", "100", "500"})
+    int snakeLength;
+
+    private final int[] xs = new int[RenderTarget.CELLS];
+    private final int[] ys = new int[RenderTarget.CELLS];
+    private SnakeSprites sprites;
+    private BufferedImage image;
+    private Graphics2D g2d;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int columns = RenderTarget.SCREEN_WIDTH / RenderTarget.UNIT_SIZE;
+        for (int i = 0; i < snakeLength; i++) {
+            int row = i / columns;
+            int column = row % 2 == 0 ? i % columns : columns - 1 - i % columns;
+            xs[i] = column * RenderTarget.UNIT_SIZE;
+            ys[i] = row * RenderTarget.UNIT_SIZE;
+        }
+        sprites = new SnakeSprites(RenderTarget.UNIT_SIZE);
+        image = RenderTarget.newImage(RenderTarget.SCREEN_WIDTH, RenderTarget.SCREEN_HEIGHT);
+        g2d = RenderTarget.newGraphics(image);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g2d.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage shapes() {
+        SnakeRenderer.drawSnakeHead(g2d, xs[0], ys[0], RenderTarget.UNIT_SIZE, Direction.RIGHT);
+        for (int i = 1; i < snakeLength; i++) {
+            SnakeRenderer.drawSnakeBody(g2d, xs[i], ys[i], RenderTarget.UNIT_SIZE);
+        }
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage sprites() {
+        sprites.drawHead(g2d, xs[0], ys[0], Direction.RIGHT);
+        for (int i = 1; i < snakeLength; i++) {
+            sprites.drawBody(g2d, xs[i], ys[i]);
+        }
+        return image;
+    }
+}
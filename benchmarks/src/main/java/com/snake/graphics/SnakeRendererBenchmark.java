@@ -0,0 +1,60 @@
+package com.snake.graphics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snake head and body painting into an offscreen image, one cell per call.
+ * Run with -prof gc for bytes allocated per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class SnakeRendererBenchmark {
+    @Param({"UP", "DOWN", "LEFT", "RIGHT"})
+    Direction direction;
+
+    private BufferedImage image;
+    private Graphics2D g2d;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        image = RenderTarget.newImage(RenderTarget.UNIT_SIZE * 3, RenderTarget.UNIT_SIZE * 3);
+        g2d = RenderTarget.newGraphics(image);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g2d.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage drawSnakeHead() {
+        SnakeRenderer.drawSnakeHead(g2d, RenderTarget.UNIT_SIZE, RenderTarget.UNIT_SIZE, RenderTarget.UNIT_SIZE, direction);
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage drawSnakeBody() {
+        SnakeRenderer.drawSnakeBody(g2d, RenderTarget.UNIT_SIZE, RenderTarget.UNIT_SIZE, RenderTarget.UNIT_SIZE);
+        return image;
+    }
+}
@@ -2,6 +2,7 @@ package com.snake;
 
 import com.snake.ui.LoginFrame;
 import com.snake.database.DatabaseManager;
+import com.snake.metrics.FlightRecording;
 import com.snake.sound.SoundManager;
 
 import javax.swing.*;
@@ -9,6 +10,29 @@ import java.awt.*;
 
 public class Main {
     public static void main(String[] args) {
+        // --active-rendering is the same as -Dsnake.rendering=active,
+        // --jfr[=file] the same as -Dsnake.jfr=file, --board=COLUMNSxROWS the same as -Dsnake.board,
+        // --autopilot the same as -Dsnake.autopilot=true, --bridge=FILE the same as -Dsnake.bridge=FILE
+        for (String arg : args) {
+            if ("--active-rendering".equals(arg)) {
+                System.setProperty("snake.rendering", "active");
+            } else if ("--jfr".equals(arg)) {
+                System.setProperty("snake.jfr", "snake.jfr");
+            } else if (arg.startsWith("--jfr=")) {
+                System.setProperty("snake.jfr", arg.substring("--jfr=".length()));
+            } else if (arg.startsWith("--board=")) {
+                System.setProperty("snake.board", arg.substring("--board=".length()));
+            } else if ("--autopilot".equals(arg)) {
+                System.setProperty("snake.autopilot", "true");
+            } else if (arg.startsWith("--bridge=")) {
+                System.setProperty("snake.bridge", arg.substring("--bridge=".length()));
+            }
+        }
+        String recording = System.getProperty("snake.jfr");
+        if (recording != null) {
+            FlightRecording.start(recording);
+        }
+
         // Set look and feel to system default
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
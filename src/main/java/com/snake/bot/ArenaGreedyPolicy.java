@@ -0,0 +1,59 @@
+package com.snake.bot;
+
+import com.snake.game.ArenaEngine;
+import com.snake.game.GameEngine;
+import com.snake.graphics.Direction;
+
+/**
+ * GreedyPolicy for arena bots. Each snake heads for one of the foods, picked
+ * by its index so the bots spread out instead of all chasing the same one,
+ * and only avoids moves into walls and bodies on the next tick. Stateless,
+ * so one instance can drive every bot.
+ */
+public class ArenaGreedyPolicy {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    public Direction chooseDirection(ArenaEngine arena, int snake) {
+        if (!arena.isAlive(snake)) {
+            return null; // Waiting to respawn
+        }
+        int columns = arena.getColumns();
+        int head = arena.getHead(snake);
+        int headX = head % columns;
+        int headY = head / columns;
+        int dx = 0;
+        int dy = 0;
+        if (arena.getFoodCount() > 0) {
+            int food = arena.getFood(snake % arena.getFoodCount());
+            dx = food % columns - headX;
+            dy = food / columns - headY;
+        }
+
+        Direction current = arena.getDirection(snake);
+        Direction best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (Direction candidate : DIRECTIONS) {
+            if (candidate == GameEngine.opposite(current)) {
+                continue;
+            }
+            if (arena.isBlocked(headX + GreedyPolicy.dx(candidate), headY + GreedyPolicy.dy(candidate))) {
+                continue;
+            }
+            int distance = Math.abs(dx - GreedyPolicy.dx(candidate)) + Math.abs(dy - GreedyPolicy.dy(candidate));
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Turns every snake except the player.
+     */
+    public void steerBots(ArenaEngine arena) {
+        for (int i = ArenaEngine.PLAYER + 1; i < arena.getSnakeCount(); i++) {
+            arena.turn(i, chooseDirection(arena, i));
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.snake.bot;
+
+import com.snake.game.GameEngine;
+import com.snake.graphics.Direction;
+
+import java.util.Arrays;
+
+/**
+ * Path-finding autopilot that goes for the food only when it can still
+ * reach its own tail afterwards, and otherwise follows its tail or heads for
+ * the biggest open area.
+ *
+ * Searches are A* with the Manhattan distance, and time-aware: a body
+ * segment blocks a cell only until the tail has moved past it, so a path
+ * may run through cells the body will have left by the time the head gets
+ * there. Before taking a path to the food, the body after eating is rebuilt
+ * from the path and the old body, and the path is only taken if that
+ * virtual head can reach the virtual tail. Nothing but the snake moves on
+ * the board, so a path that passed the check stays safe and is followed
+ * without searching again until the food or the level changes.
+ *
+ * All search state lives in arrays sized for the board, allocated on the
+ * first decision (and again only if the board size changes). Search and
+ * blocked marks carry an epoch stamp in their high half, so nothing is
+ * cleared between searches and a decision never allocates.
+ */
+public class AutopilotPolicy implements BotPolicy {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int NEVER = Integer.MAX_VALUE;
+    private static final long LOW = 0xFFFFFFFFL;
+    private static final int RETRY_TICKS = 8;
+    // Food searches give up after this many expansions per cell of Manhattan distance, plus room
+    private static final int FOOD_EXPANSIONS_PER_STEP = 4;
+
+    private int columns;
+    private int rows;
+    // Open list for A*: nodes with the current f on a stack, nodes with f + 2 in the next list
+    private int[] open = new int[0];
+    private int[] nextOpen = new int[0];
+    private int[] parent;
+    // Search epoch << 32 | distance << 1 | closed
+    private long[] nodes;
+    // Blocked epoch << 32 | move after which the cell is free
+    private long[] blocked;
+    private int[] virtualBody;
+    // Column and row of every cell, so the inner loops need no division
+    private int[] cellX;
+    private int[] cellY;
+    private int searchEpoch;
+    private int blockedEpoch;
+    private int found;
+    private int room;
+
+    // Path to the food last checked as safe, plan[0] being the first move
+    private int[] plan;
+    private int planLength;
+    private int planIndex;
+    private int planFood;
+    private int planLevel;
+    private int planHead;
+    // After the food turns out unsafe, it is not searched for again until then
+    private long retryTick;
+    private GameEngine lastEngine;
+    private long lastTicks;
+
+    @Override
+    public Direction chooseDirection(GameEngine engine) {
+        if (!engine.isAlive()) {
+            return null;
+        }
+        ensureCapacity(engine.getColumns(), engine.getRows());
+        int head = engine.getHead();
+        int length = engine.getSnakeLength();
+        int growth = engine.getPendingGrowth();
+        int food = engine.getFood();
+        Direction current = engine.getDirection();
+
+        // A new engine or a reset one starts a new game
+        if (engine != lastEngine || engine.getTicks() < lastTicks) {
+            lastEngine = engine;
+            planLength = 0;
+            retryTick = 0;
+        }
+        lastTicks = engine.getTicks();
+
+        // 0. Keep following a path that was already checked
+        if (planIndex < planLength && head == planHead
+                && food == planFood && engine.getLevel() == planLevel) {
+            planHead = plan[planIndex++];
+            return directionTo(head, planHead);
+        }
+        planLength = 0;
+        // Room for twice the body counts as safe, which keeps tail searches short on big boards
+        room = 2 * length + 16;
+
+        // 1. Shortest path to the food, if the snake can still reach its tail after eating
+        markBlocked(engine, growth);
+        if (food >= 0 && engine.getTicks() >= retryTick
+                && search(head, food, current, false, foodSearchLimit(head, food)) >= 0) {
+            storePlan(food);
+            if (tailReachableAfterEating(engine, growth)) {
+                planIndex = 1;
+                planFood = food;
+                planLevel = engine.getLevel();
+                planHead = plan[0];
+                return directionTo(head, planHead);
+            }
+            planLength = 0;
+            markBlocked(engine, growth);
+        }
+        if (food >= 0 && engine.getTicks() >= retryTick) {
+            retryTick = engine.getTicks() + RETRY_TICKS;
+        }
+
+        // 2. Follow the tail, which keeps the snake alive until the food becomes safe
+        int tail = engine.getSnakeCell(length - 1);
+        if (length > 1 && search(head, tail, current, true, room) > 0) {
+            return directionTo(head, firstStep(head, found));
+        }
+
+        // 3. No safe route: take the legal move with the most room behind it
+        Direction best = null;
+        int bestArea = -1;
+        for (Direction candidate : DIRECTIONS) {
+            if (candidate == GameEngine.opposite(current)) {
+                continue;
+            }
+            int next = neighbour(head, candidate);
+            if (next < 0 || !isPassable(next, 1)) {
+                continue;
+            }
+            int area = floodFill(next, room);
+            if (area > bestArea) {
+                bestArea = area;
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private void ensureCapacity(int columns, int rows) {
+        if (this.columns == columns && this.rows == rows) {
+            return;
+        }
+        int cells = columns * rows;
+        this.columns = columns;
+        this.rows = rows;
+        // A cell is pushed at most once per edge into it
+        open = new int[4 * cells];
+        nextOpen = new int[4 * cells];
+        parent = new int[cells];
+        nodes = new long[cells];
+        blocked = new long[cells];
+        virtualBody = new int[cells];
+        plan = new int[cells];
+        planLength = 0;
+        cellX = new int[cells];
+        cellY = new int[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            cellX[cell] = cell % columns;
+            cellY[cell] = cell / columns;
+        }
+        searchEpoch = 0;
+        blockedEpoch = 0;
+    }
+
+    // Barriers never clear; segment i (0 = head) leaves after length - i moves plus pending growth
+    private void markBlocked(GameEngine engine, int growth) {
+        nextBlockedEpoch();
+        markBarriers(engine);
+        int length = engine.getSnakeLength();
+        for (int i = 0; i < length; i++) {
+            block(engine.getSnakeCell(i), length - i + growth);
+        }
+    }
+
+    private void markBarriers(GameEngine engine) {
+        for (int i = 0; i < engine.getBarrierCount(); i++) {
+            block(engine.getBarrierCell(i), NEVER);
+        }
+    }
+
+    private void block(int cell, int freeAt) {
+        blocked[cell] = (long) blockedEpoch << 32 | freeAt;
+    }
+
+    private boolean isPassable(int cell, int time) {
+        long mark = blocked[cell];
+        return (int) (mark >>> 32) != blockedEpoch || time >= (int) mark;
+    }
+
+    // A body cell, as opposed to a barrier or a free cell
+    private boolean isBodyCell(int cell) {
+        long mark = blocked[cell];
+        return (int) (mark >>> 32) == blockedEpoch && (int) mark != NEVER;
+    }
+
+    /**
+     * Time-aware A* from start to target; the first move may not reverse
+     * the current direction. Returns the number of moves, or -1 if the
+     * target can't be reached within limit expansions, and leaves the cell
+     * reached in found. With
+     * unit steps and the Manhattan heuristic a move keeps f or raises it by
+     * exactly 2, so the open list is just two buckets instead of a heap.
+     *
+     * With toTail set (target being the tail), any body cell the tail has
+     * already left counts as reached: from there the head can follow its
+     * own trail forever, which is all "reaching the tail" has to prove. So
+     * does having expanded limit cells, enough space for the body to unwind.
+     */
+    private int search(int start, int target, Direction current, boolean toTail, int limit) {
+        nextSearchEpoch();
+        long epoch = (long) searchEpoch << 32;
+        int targetX = cellX[target];
+        int targetY = cellY[target];
+        int forbidden = neighbour(start, GameEngine.opposite(current));
+        int openSize = 0;
+        int nextSize = 0;
+        int expanded = 0;
+        nodes[start] = epoch;
+        open[openSize++] = start;
+        while (openSize > 0) {
+            int cell = open[--openSize];
+            long node = nodes[cell];
+            if ((node & 1) == 0) {
+                nodes[cell] = node | 1;
+                int time = (int) node >>> 1;
+                if (cell == target || toTail && cell != start && isBodyCell(cell)) {
+                    found = cell;
+                    return time;
+                }
+                if (++expanded > limit) {
+                    if (!toTail) {
+                        return -1;
+                    }
+                    found = cell;
+                    return time;
+                }
+                time++;
+                int x = cellX[cell];
+                int y = cellY[cell];
+                // A neighbour closer to the target keeps f, one further away is f + 2
+                for (int side = 0; side < 4; side++) {
+                    int next;
+                    boolean closer;
+                    switch (side) {
+                        case 0 -> {
+                            if (y == 0) continue;
+                            next = cell - columns;
+                            closer = y > targetY;
+                        }
+                        case 1 -> {
+                            if (y == rows - 1) continue;
+                            next = cell + columns;
+                            closer = y < targetY;
+                        }
+                        case 2 -> {
+                            if (x == 0) continue;
+                            next = cell - 1;
+                            closer = x > targetX;
+                        }
+                        default -> {
+                            if (x == columns - 1) continue;
+                            next = cell + 1;
+                            closer = x < targetX;
+                        }
+                    }
+                    long seen = nodes[next];
+                    // Skip cells closed or already queued at the same or a shorter distance
+                    if ((seen & ~LOW) == epoch && ((seen & 1) != 0 || (int) seen >>> 1 <= time)
+                            || (cell == start && next == forbidden) || !isPassable(next, time)) {
+                        continue;
+                    }
+                    nodes[next] = epoch | (long) time << 1;
+                    parent[next] = cell;
+                    if (closer) {
+                        open[openSize++] = next;
+                    } else {
+                        nextOpen[nextSize++] = next;
+                    }
+                }
+            }
+            if (openSize == 0 && nextSize > 0) {
+                int[] swap = open;
+                open = nextOpen;
+                nextOpen = swap;
+                openSize = nextSize;
+                nextSize = 0;
+            }
+        }
+        return -1;
+    }
+
+    // An unreachable food would otherwise be searched for over the whole board
+    private int foodSearchLimit(int head, int food) {
+        int distance = Math.abs(cellX[head] - cellX[food]) + Math.abs(cellY[head] - cellY[food]);
+        return FOOD_EXPANSIONS_PER_STEP * distance + room;
+    }
+
+    // Walks the parents back from target to the cell next to start
+    private int firstStep(int start, int target) {
+        int cell = target;
+        while (parent[cell] != start) {
+            cell = parent[cell];
+        }
+        return cell;
+    }
+
+    // Copies the path just found into plan, first move first
+    private void storePlan(int food) {
+        planLength = (int) nodes[food] >>> 1;
+        int cell = food;
+        for (int i = planLength - 1; i >= 0; i--) {
+            plan[i] = cell;
+            cell = parent[cell];
+        }
+    }
+
+    /**
+     * Rebuilds the body as it will be once the head reaches the food along
+     * the planned path, then checks that head can reach that body's tail.
+     */
+    private boolean tailReachableAfterEating(GameEngine engine, int growth) {
+        int moves = planLength;
+        int length = engine.getSnakeLength();
+        // Pending growth is used up first on the way, then eating adds one more segment
+        int newLength = Math.min(length + Math.min(growth, moves), virtualBody.length);
+        int pending = Math.max(0, growth - moves) + 1;
+        int count = 0;
+        for (int i = moves - 1; i >= 0 && count < newLength; i--) {
+            virtualBody[count++] = plan[i];
+        }
+        for (int i = 0; count < newLength && i < length; i++) {
+            virtualBody[count++] = engine.getSnakeCell(i);
+        }
+        if (count < 2) {
+            return true;
+        }
+        int food = plan[moves - 1];
+        Direction arriving = directionTo(moves > 1 ? plan[moves - 2] : engine.getHead(), food);
+
+        // Only the barriers and the virtual body block now
+        nextBlockedEpoch();
+        markBarriers(engine);
+        for (int i = 0; i < count; i++) {
+            block(virtualBody[i], count - i + pending);
+        }
+        return search(food, virtualBody[count - 1], arriving, true, room) > 0;
+    }
+
+    // Breadth-first count of the cells reachable from start, stopping at limit
+    private int floodFill(int start, int limit) {
+        nextSearchEpoch();
+        long epoch = (long) searchEpoch << 32;
+        int read = 0;
+        int write = 0;
+        open[write++] = start;
+        nodes[start] = epoch | 1 << 1;
+        while (read < write && write < limit) {
+            int cell = open[read++];
+            int time = ((int) nodes[cell] >>> 1) + 1;
+            int x = cellX[cell];
+            int y = cellY[cell];
+            for (int side = 0; side < 4; side++) {
+                int next;
+                switch (side) {
+                    case 0 -> next = y == 0 ? -1 : cell - columns;
+                    case 1 -> next = y == rows - 1 ? -1 : cell + columns;
+                    case 2 -> next = x == 0 ? -1 : cell - 1;
+                    default -> next = x == columns - 1 ? -1 : cell + 1;
+                }
+                if (next < 0 || (nodes[next] & ~LOW) == epoch || !isPassable(next, time)) {
+                    continue;
+                }
+                nodes[next] = epoch | (long) time << 1;
+                open[write++] = next;
+            }
+        }
+        return write;
+    }
+
+    private int neighbour(int cell, Direction direction) {
+        int x = cell % columns;
+        int y = cell / columns;
+        switch (direction) {
+            case UP -> y--;
+            case DOWN -> y++;
+            case LEFT -> x--;
+            case RIGHT -> x++;
+        }
+        if (x < 0 || x >= columns || y < 0 || y >= rows) {
+            return -1;
+        }
+        return y * columns + x;
+    }
+
+    private Direction directionTo(int from, int to) {
+        if (to == from - columns) {
+            return Direction.UP;
+        }
+        if (to == from + columns) {
+            return Direction.DOWN;
+        }
+        return to == from - 1 ? Direction.LEFT : Direction.RIGHT;
+    }
+
+    // Epochs only grow; on wrap-around the marks are reset once
+    private void nextSearchEpoch() {
+        if (++searchEpoch == Integer.MAX_VALUE) {
+            Arrays.fill(nodes, 0);
+            searchEpoch = 1;
+        }
+    }
+
+    private void nextBlockedEpoch() {
+        if (++blockedEpoch == Integer.MAX_VALUE) {
+            Arrays.fill(blocked, 0);
+            blockedEpoch = 1;
+        }
+    }
+}
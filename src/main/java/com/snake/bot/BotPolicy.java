@@ -0,0 +1,17 @@
+package com.snake.bot;
+
+import com.snake.game.GameEngine;
+import com.snake.graphics.Direction;
+
+/**
+ * Chooses the snake's next direction from the current engine state. Policies
+ * may keep scratch state between calls, so an instance must only be used by
+ * one thread at a time; batch runs create one per worker.
+ */
+public interface BotPolicy {
+    /**
+     * Returns the direction to turn to before the next tick, or null to keep
+     * going straight.
+     */
+    Direction chooseDirection(GameEngine engine);
+}
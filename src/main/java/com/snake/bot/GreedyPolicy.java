@@ -0,0 +1,50 @@
+package com.snake.bot;
+
+import com.snake.game.GameEngine;
+import com.snake.graphics.Direction;
+
+/**
+ * Heads straight for the food, only avoiding moves that would end the game on
+ * the next tick.
+ */
+public class GreedyPolicy implements BotPolicy {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    @Override
+    public Direction chooseDirection(GameEngine engine) {
+        int columns = engine.getColumns();
+        int head = engine.getHead();
+        int food = engine.getFood();
+        int headX = head % columns;
+        int headY = head / columns;
+        int dx = food >= 0 ? food % columns - headX : 0;
+        int dy = food >= 0 ? food / columns - headY : 0;
+
+        Direction best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (Direction candidate : DIRECTIONS) {
+            if (candidate == GameEngine.opposite(engine.getDirection())) {
+                continue;
+            }
+            int x = headX + dx(candidate);
+            int y = headY + dy(candidate);
+            if (engine.isBlocked(x, y)) {
+                continue;
+            }
+            int distance = Math.abs(dx - dx(candidate)) + Math.abs(dy - dy(candidate));
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    static int dx(Direction direction) {
+        return direction == Direction.LEFT ? -1 : direction == Direction.RIGHT ? 1 : 0;
+    }
+
+    static int dy(Direction direction) {
+        return direction == Direction.UP ? -1 : direction == Direction.DOWN ? 1 : 0;
+    }
+}
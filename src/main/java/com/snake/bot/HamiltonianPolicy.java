@@ -0,0 +1,54 @@
+package com.snake.bot;
+
+import com.snake.game.GameEngine;
+import com.snake.graphics.Direction;
+
+/**
+ * Follows a Hamiltonian cycle over the board so the snake can grow very long
+ * without hitting itself. Column 0 runs upwards, and the remaining columns are
+ * swept row by row, rightwards on even rows and leftwards on odd rows; this
+ * needs an even number of rows. If a barrier sits on the cycle it steps
+ * around it with the first safe move.
+ */
+public class HamiltonianPolicy implements BotPolicy {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    @Override
+    public Direction chooseDirection(GameEngine engine) {
+        int columns = engine.getColumns();
+        int rows = engine.getRows();
+        int head = engine.getHead();
+        int x = head % columns;
+        int y = head / columns;
+
+        Direction direction = cycleDirection(columns, rows, x, y);
+        if (isSafe(engine, x, y, direction)) {
+            return direction;
+        }
+        for (Direction candidate : DIRECTIONS) {
+            if (candidate != GameEngine.opposite(engine.getDirection()) && isSafe(engine, x, y, candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The cycle's direction out of (x, y), ignoring barriers.
+     */
+    public static Direction cycleDirection(int columns, int rows, int x, int y) {
+        if (x == 0) {
+            return y == 0 ? Direction.RIGHT : Direction.UP;
+        } else if (y % 2 == 0) {
+            return x < columns - 1 ? Direction.RIGHT : Direction.DOWN;
+        } else if (x > 1) {
+            return Direction.LEFT;
+        } else {
+            return y == rows - 1 ? Direction.LEFT : Direction.DOWN;
+        }
+    }
+
+    private static boolean isSafe(GameEngine engine, int x, int y, Direction direction) {
+        return !engine.isBlocked(x + GreedyPolicy.dx(direction), y + GreedyPolicy.dy(direction));
+    }
+}
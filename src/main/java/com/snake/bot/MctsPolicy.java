@@ -0,0 +1,291 @@
+package com.snake.bot;
+
+import com.snake.game.GameEngine;
+import com.snake.game.GameRandom;
+import com.snake.graphics.Direction;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Monte Carlo tree search bot. Each decision runs as many simulations as
+ * fit in its time budget, one worker task per thread of a ForkJoinPool.
+ *
+ * There is no tree of node objects: visit counts and reward sums live in a
+ * shared TranspositionTable keyed by each state's Zobrist hash, so states
+ * reached by different move orders share their statistics and the table's
+ * size bounds the memory. A simulation walks down from the current state
+ * by UCB1 until it reaches a state it has not seen, plays a quick rollout
+ * from there and adds the rollout's reward to every state on the way down.
+ * The move finally chosen is the one whose state was visited most.
+ *
+ * Workers stop a tenth of the budget early, since the last simulations and
+ * handing the result back to the caller still take time. The caller waits
+ * for them only until just before the budget runs out and then reads the
+ * visits from the table; a worker that was descheduled finishes its last
+ * simulation on its own and is replaced for the next decision.
+ *
+ * Rollouts mostly step towards the food and otherwise move at random,
+ * avoiding immediate deaths. The reward is half for staying alive to the
+ * end of the simulation and half for food eaten, with food eaten sooner
+ * worth more.
+ */
+public class MctsPolicy implements BotPolicy {
+    // Half of a level 10 tick, so a live decision leaves room for the rest of the tick
+    public static final long DEFAULT_BUDGET_NANOS = GameEngine.getTickDelay(GameEngine.MAX_LEVEL) * 1_000_000L / 2;
+    public static final int DEFAULT_TABLE_SIZE = 1 << 20;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int MOVES = DIRECTIONS.length;
+    private static final int TREE_DEPTH = 24;
+    private static final int ROLLOUT_DEPTH = 48;
+    private static final double EXPLORATION = 0.7;
+    private static final double[] DISCOUNT = new double[TREE_DEPTH + ROLLOUT_DEPTH + 1];
+
+    static {
+        for (int i = 0; i < DISCOUNT.length; i++) {
+            DISCOUNT[i] = Math.pow(0.95, i);
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final long budgetNanos;
+    private final TranspositionTable table;
+    private final long seed;
+    private ZobristKeys keys;
+    private RolloutState root;
+    private Worker[] workers = new Worker[0];
+    private long lastSimulations;
+
+    public MctsPolicy() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BUDGET_NANOS, DEFAULT_TABLE_SIZE, 1);
+    }
+
+    public MctsPolicy(ForkJoinPool pool, long budgetNanos, int tableSize, long seed) {
+        this.pool = pool;
+        this.budgetNanos = budgetNanos;
+        this.table = new TranspositionTable(tableSize);
+        this.seed = seed;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Simulations run by all workers for the last decision.
+     */
+    public long getLastSimulations() {
+        return lastSimulations;
+    }
+
+    @Override
+    public Direction chooseDirection(GameEngine engine) {
+        if (!engine.isAlive()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos - budgetNanos / 10;
+        long waitDeadline = start + budgetNanos - budgetNanos / 20;
+        prepare(engine.getColumns(), engine.getRows());
+        replaceLateWorkers();
+        root.load(engine);
+
+        for (Worker worker : workers) {
+            worker.reinitialize();
+            worker.root = root;
+            worker.deadline = deadline;
+            worker.simulations = 0;
+            worker.launched = true;
+            pool.execute(worker);
+        }
+        lastSimulations = awaitWorkers(waitDeadline);
+
+        int best = -1;
+        int bestVisits = -1;
+        for (int move = 0; move < MOVES; move++) {
+            long key = root.hashAfter(move);
+            if (key == 0 || move == GameEngine.opposite(engine.getDirection()).ordinal()) {
+                continue;
+            }
+            int visits = table.getVisits(key);
+            if (visits > bestVisits) {
+                bestVisits = visits;
+                best = move;
+            }
+        }
+        return best < 0 ? null : DIRECTIONS[best];
+    }
+
+    // Waits for the workers until waitDeadline and returns the simulations run by those that finished
+    private long awaitWorkers(long waitDeadline) {
+        long simulations = 0;
+        for (Worker worker : workers) {
+            try {
+                worker.get(Math.max(0, waitDeadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                simulations += worker.simulations;
+            } catch (TimeoutException e) {
+                // Its statistics are already in the table; it stops after its current simulation
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("MCTS worker failed", e.getCause());
+            }
+        }
+        return simulations;
+    }
+
+    // A worker still running from the last decision keeps its state and root; give the next decision new ones
+    private void replaceLateWorkers() {
+        boolean late = false;
+        for (int i = 0; i < workers.length; i++) {
+            if (workers[i].launched && !workers[i].isDone()) {
+                workers[i] = new Worker(new RolloutState(keys), GameRandom.seedFor(seed, i));
+                late = true;
+            }
+        }
+        if (late) {
+            root = new RolloutState(keys);
+        }
+    }
+
+    private void prepare(int columns, int rows) {
+        if (keys != null && keys.columns == columns && keys.rows == rows
+                && workers.length == pool.getParallelism()) {
+            return;
+        }
+        if (keys == null || keys.columns != columns || keys.rows != rows) {
+            // Hashes from another board size mean nothing here
+            table.clear();
+        }
+        keys = new ZobristKeys(columns, rows);
+        root = new RolloutState(keys);
+        workers = new Worker[pool.getParallelism()];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(new RolloutState(keys), GameRandom.seedFor(seed, i));
+        }
+    }
+
+    // Runs simulations from the root until the deadline
+    private final class Worker extends RecursiveAction {
+        private final RolloutState state;
+        private final GameRandom random;
+        private final long[] path = new long[TREE_DEPTH + 1];
+        private RolloutState root;
+        // Only touched by the caller: whether the worker has been submitted, so isDone() means finished
+        private boolean launched;
+        private long deadline;
+        private long simulations;
+
+        Worker(RolloutState state, long seed) {
+            this.state = state;
+            this.random = new GameRandom(seed);
+        }
+
+        @Override
+        protected void compute() {
+            do {
+                simulate();
+                simulations++;
+            } while (System.nanoTime() < deadline);
+        }
+
+        private void simulate() {
+            state.copyFrom(root);
+            int depth = 0;
+            long key = state.getHash();
+            path[depth++] = key;
+            int parentVisits = table.addVisit(key) + 1;
+            int steps = 0;
+            double food = 0;
+            boolean died = false;
+
+            // Selection: follow UCB1 through states already in the table
+            while (depth <= TREE_DEPTH) {
+                double logParent = Math.log(parentVisits);
+                int best = -1;
+                long bestKey = 0;
+                double bestScore = Double.NEGATIVE_INFINITY;
+                int reverse = GameEngine.opposite(DIRECTIONS[state.getDirection()]).ordinal();
+                for (int move = 0; move < MOVES; move++) {
+                    long child = move == reverse ? 0 : state.hashAfter(move);
+                    if (child == 0) {
+                        continue;
+                    }
+                    double score = table.getUcb(child, logParent, EXPLORATION);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = move;
+                        bestKey = child;
+                    }
+                }
+                if (best < 0) {
+                    died = true;
+                    break;
+                }
+                path[depth++] = bestKey;
+                parentVisits = table.addVisit(bestKey) + 1;
+                if (state.step(best, random) == RolloutState.EVENT_ATE) {
+                    food += DISCOUNT[steps];
+                }
+                steps++;
+                if (parentVisits == 1 || depth > TREE_DEPTH) {
+                    break;
+                }
+            }
+
+            // Rollout from the new state
+            for (int i = 0; !died && i < ROLLOUT_DEPTH; i++) {
+                int event = state.step(rolloutMove(), random);
+                if (event == RolloutState.EVENT_DIED) {
+                    died = true;
+                } else {
+                    if (event == RolloutState.EVENT_ATE) {
+                        food += DISCOUNT[steps];
+                    }
+                    steps++;
+                }
+            }
+
+            double survival = died ? (double) steps / (TREE_DEPTH + ROLLOUT_DEPTH) : 1;
+            double reward = 0.5 * survival + 0.5 * Math.min(1, food);
+            for (int i = 0; i < depth; i++) {
+                table.addReward(path[i], reward);
+            }
+        }
+
+        // Three times in four the safe move closest to the food, otherwise any safe move
+        private int rolloutMove() {
+            int head = state.getHead();
+            int food = state.getFood();
+            int columns = keys.columns;
+            int reverse = GameEngine.opposite(DIRECTIONS[state.getDirection()]).ordinal();
+            boolean greedy = food >= 0 && random.nextInt(4) != 0;
+            int best = state.getDirection();
+            int bestDistance = Integer.MAX_VALUE;
+            int safe = 0;
+            for (int move = 0; move < MOVES; move++) {
+                int target = move == reverse ? -1 : state.target(move);
+                if (!state.isSafe(target)) {
+                    continue;
+                }
+                if (greedy) {
+                    int distance = Math.abs(target % columns - food % columns)
+                        + Math.abs(target / columns - food / columns);
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        best = move;
+                    }
+                } else if (random.nextInt(++safe) == 0) {
+                    // Reservoir sampling: uniform over the safe moves
+                    best = move;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.snake.bot;
+
+import com.snake.game.GameEngine;
+import com.snake.game.GameRandom;
+import com.snake.game.OccupancyGrid;
+import com.snake.graphics.Direction;
+
+import java.util.Arrays;
+
+/**
+ * Cheap copy of a game for playing moves ahead: the board as one byte per
+ * cell, the body in an array with the head first, the food and the pending
+ * growth. It follows GameEngine's movement rules but has no levels or score,
+ * and food eaten during a simulation respawns from the simulation's own
+ * random source. The Zobrist hash is kept up to date on every move.
+ */
+final class RolloutState {
+    static final int EVENT_NONE = 0;
+    static final int EVENT_ATE = 1;
+    static final int EVENT_DIED = 2;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // Random tries before a simulation gives up placing food
+    private static final int FOOD_TRIES = 32;
+
+    private final ZobristKeys keys;
+    private final int columns;
+    private final int rows;
+    private final byte[] cells;
+    // Segment i is body[(headIndex + i) % capacity]
+    private final int[] body;
+    private int headIndex;
+    private int length;
+    private int growth;
+    private int food;
+    private int direction;
+    private long hash;
+
+    RolloutState(ZobristKeys keys) {
+        this.keys = keys;
+        this.columns = keys.columns;
+        this.rows = keys.rows;
+        this.cells = new byte[columns * rows];
+        this.body = new int[columns * rows];
+    }
+
+    void load(GameEngine engine) {
+        Arrays.fill(cells, OccupancyGrid.EMPTY);
+        hash = 0;
+        for (int i = 0; i < engine.getBarrierCount(); i++) {
+            int cell = engine.getBarrierCell(i);
+            cells[cell] = OccupancyGrid.BARRIER;
+            hash ^= keys.barrier[cell];
+        }
+        headIndex = 0;
+        length = engine.getSnakeLength();
+        for (int i = 0; i < length; i++) {
+            int cell = engine.getSnakeCell(i);
+            body[i] = cell;
+            cells[cell] = OccupancyGrid.SNAKE;
+            hash ^= keys.body[cell];
+        }
+        hash ^= keys.head[body[0]];
+        food = engine.getFood();
+        if (food >= 0) {
+            cells[food] = OccupancyGrid.FOOD;
+            hash ^= keys.food[food];
+        }
+        growth = engine.getPendingGrowth();
+        hash ^= keys.growth(growth);
+        direction = engine.getDirection().ordinal();
+        hash ^= keys.direction[direction];
+    }
+
+    void copyFrom(RolloutState other) {
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+        for (int i = 0; i < other.length; i++) {
+            body[i] = other.body[(other.headIndex + i) % body.length];
+        }
+        headIndex = 0;
+        length = other.length;
+        growth = other.growth;
+        food = other.food;
+        direction = other.direction;
+        hash = other.hash;
+    }
+
+    long getHash() {
+        return hash;
+    }
+
+    int getHead() {
+        return body[headIndex];
+    }
+
+    int getFood() {
+        return food;
+    }
+
+    int getDirection() {
+        return direction;
+    }
+
+    /**
+     * The cell a move in the given direction (a Direction ordinal) lands
+     * on, or -1 if it leaves the board. Like GameEngine.turn(), reversing
+     * keeps the current direction.
+     */
+    int target(int move) {
+        if (move == GameEngine.opposite(DIRECTIONS[direction]).ordinal()) {
+            move = direction;
+        }
+        int head = body[headIndex];
+        int x = head % columns + GreedyPolicy.dx(DIRECTIONS[move]);
+        int y = head / columns + GreedyPolicy.dy(DIRECTIONS[move]);
+        if (x < 0 || x >= columns || y < 0 || y >= rows) {
+            return -1;
+        }
+        return y * columns + x;
+    }
+
+    boolean isSafe(int target) {
+        if (target < 0) {
+            return false;
+        }
+        byte content = cells[target];
+        if (content == OccupancyGrid.BARRIER) {
+            return false;
+        }
+        // The tail moves out of the way unless the snake is growing
+        return content != OccupancyGrid.SNAKE || (target == tail() && growth == 0);
+    }
+
+    /**
+     * Hash of the state after the move, without making it. If the move eats,
+     * the hash has no food in it; the food that respawns is chance, not part
+     * of the choice. Returns 0 if the move is deadly.
+     */
+    long hashAfter(int move) {
+        int target = target(move);
+        if (!isSafe(target)) {
+            return 0;
+        }
+        int turned = move == GameEngine.opposite(DIRECTIONS[direction]).ordinal() ? direction : move;
+        long next = hash ^ keys.direction[direction] ^ keys.direction[turned]
+            ^ keys.head[body[headIndex]] ^ keys.head[target] ^ keys.body[target];
+        int nextGrowth = growth;
+        if (nextGrowth > 0) {
+            nextGrowth--;
+        } else {
+            next ^= keys.body[tail()];
+        }
+        if (target == food) {
+            next ^= keys.food[food];
+            nextGrowth++;
+        }
+        return next ^ keys.growth(growth) ^ keys.growth(nextGrowth);
+    }
+
+    /**
+     * Makes the move and returns EVENT_ATE, EVENT_DIED or EVENT_NONE. New
+     * food is placed after eating, so getHash() then includes it.
+     */
+    int step(int move, GameRandom random) {
+        int target = target(move);
+        if (!isSafe(target)) {
+            return EVENT_DIED;
+        }
+        hash ^= keys.direction[direction];
+        if (move != GameEngine.opposite(DIRECTIONS[direction]).ordinal()) {
+            direction = move;
+        }
+        hash ^= keys.direction[direction] ^ keys.growth(growth);
+        boolean ate = target == food;
+        if (growth > 0) {
+            growth--;
+            length++;
+        } else {
+            int tail = tail();
+            cells[tail] = OccupancyGrid.EMPTY;
+            hash ^= keys.body[tail];
+        }
+        int head = body[headIndex];
+        headIndex = (headIndex + body.length - 1) % body.length;
+        body[headIndex] = target;
+        cells[target] = OccupancyGrid.SNAKE;
+        hash ^= keys.head[head] ^ keys.head[target] ^ keys.body[target];
+        if (ate) {
+            hash ^= keys.food[food];
+            growth++;
+            spawnFood(random);
+        }
+        hash ^= keys.growth(growth);
+        return ate ? EVENT_ATE : EVENT_NONE;
+    }
+
+    private int tail() {
+        return body[(headIndex + length - 1) % body.length];
+    }
+
+    private void spawnFood(GameRandom random) {
+        food = -1;
+        for (int i = 0; i < FOOD_TRIES; i++) {
+            int cell = random.nextInt(cells.length);
+            if (cells[cell] == OccupancyGrid.EMPTY) {
+                food = cell;
+                cells[cell] = OccupancyGrid.FOOD;
+                hash ^= keys.food[cell];
+                return;
+            }
+        }
+    }
+}
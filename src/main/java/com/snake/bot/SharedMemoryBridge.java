@@ -0,0 +1,209 @@
+package com.snake.bot;
+
+import com.snake.game.Barriers;
+import com.snake.game.GameEngine;
+import com.snake.graphics.Direction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lets a bot in another process steer the snake through a memory-mapped
+ * file, with no syscalls on either side once the file is mapped. The game
+ * publishes the board after every tick and reads back the bot's direction
+ * before the next one. It never waits: if the bot has not answered the
+ * latest state by then, the snake keeps its direction.
+ *
+ * The file is little-endian; offsets are in bytes:
+ * <pre>
+ *   0  int  MAGIC ("SNKB")       4  int  VERSION
+ *   8  int  columns             12  int  rows
+ *  16  int  capacity (max snake cells + barrier cells in the file)
+ *  64  long state sequence      72  long tick
+ *  80  int  alive (0/1)         84  int  direction (Direction ordinal)
+ *  88  int  level               92  int  score
+ *  96  int  food cell (-1 none) 100  int  snake length
+ * 104  int  barrier count      108  int  pending growth
+ * 128  long answer             (written by the bot)
+ * 192  int[] snake cells, head first, then barrier cells
+ * </pre>
+ * Cells are packed as y * columns + x. Directions are UP=0, DOWN=1, LEFT=2,
+ * RIGHT=3.
+ *
+ * The state is guarded by a seqlock: the game makes the sequence odd, writes
+ * the state and makes it even again. A bot reads the sequence, skips the
+ * state if it is odd, copies what it needs, and keeps the copy only if the
+ * sequence is unchanged afterwards. To answer, the bot stores one aligned
+ * 64-bit word at ANSWER_OFFSET: (sequence << 2) | direction, using the even
+ * sequence of the state it read. An answer for an older state is ignored.
+ */
+public class SharedMemoryBridge implements BotPolicy, Closeable {
+    public static final int MAGIC = 0x534E4B42; // "SNKB"
+    public static final int VERSION = 1;
+    public static final int COLUMNS_OFFSET = 8;
+    public static final int ROWS_OFFSET = 12;
+    public static final int CAPACITY_OFFSET = 16;
+    public static final int SEQUENCE_OFFSET = 64;
+    public static final int TICK_OFFSET = 72;
+    public static final int ALIVE_OFFSET = 80;
+    public static final int DIRECTION_OFFSET = 84;
+    public static final int LEVEL_OFFSET = 88;
+    public static final int SCORE_OFFSET = 92;
+    public static final int FOOD_OFFSET = 96;
+    public static final int LENGTH_OFFSET = 100;
+    public static final int BARRIER_COUNT_OFFSET = 104;
+    public static final int GROWTH_OFFSET = 108;
+    // On its own cache line, so the bot's store doesn't contend with the state
+    public static final int ANSWER_OFFSET = 128;
+    public static final int CELLS_OFFSET = 192;
+    // The file holds every cell of a board up to this size
+    public static final int MAX_CELLS = 1 << 20;
+    private static final int SPINS_PER_YIELD = 64;
+
+    // Ordered 64-bit access to the mapping, for the sequence and the answer
+    private static final VarHandle LONGS =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int columns;
+    private final int rows;
+    private final int capacity;
+    private final long waitNanos;
+    private long sequence;
+    private long answered;
+    private long missed;
+
+    /**
+     * Creates or overwrites the file at path for a board of the given size.
+     * chooseDirection() waits up to waitNanos for an answer; the tick thread
+     * uses publish() and poll() instead, which never wait.
+     */
+    public SharedMemoryBridge(Path path, int columns, int rows, long waitNanos) throws IOException {
+        if ((long) columns * rows > MAX_CELLS) {
+            throw new IllegalArgumentException("Board too big for a bot bridge: " + columns + "x" + rows);
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.capacity = columns * rows + Barriers.getMaxCount();
+        this.waitNanos = waitNanos;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, CELLS_OFFSET + 4L * capacity);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(COLUMNS_OFFSET, columns);
+        buffer.putInt(ROWS_OFFSET, rows);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        LONGS.setRelease(buffer, SEQUENCE_OFFSET, 0L);
+        LONGS.setRelease(buffer, ANSWER_OFFSET, -1L);
+        // Written last, so a bot that sees the magic sees a complete header
+        VarHandle.releaseFence();
+        buffer.putInt(0, MAGIC);
+    }
+
+    /**
+     * Ticks whose published state the bot answered in time.
+     */
+    public long getAnswered() {
+        return answered;
+    }
+
+    /**
+     * Ticks where the bot had not answered the latest state in time.
+     */
+    public long getMissed() {
+        return missed;
+    }
+
+    /**
+     * Writes the engine's state for the bot. Only one thread may publish.
+     */
+    public void publish(GameEngine engine) {
+        if (engine.getColumns() != columns || engine.getRows() != rows) {
+            throw new IllegalArgumentException("Bridge is for a " + columns + "x" + rows + " board");
+        }
+        LONGS.setOpaque(buffer, SEQUENCE_OFFSET, ++sequence);
+        VarHandle.storeStoreFence();
+        buffer.putLong(TICK_OFFSET, engine.getTicks());
+        buffer.putInt(ALIVE_OFFSET, engine.isAlive() ? 1 : 0);
+        buffer.putInt(DIRECTION_OFFSET, engine.getDirection().ordinal());
+        buffer.putInt(LEVEL_OFFSET, engine.getLevel());
+        buffer.putInt(SCORE_OFFSET, engine.getScore());
+        buffer.putInt(FOOD_OFFSET, engine.getFood());
+        buffer.putInt(GROWTH_OFFSET, engine.getPendingGrowth());
+        int length = engine.getSnakeLength();
+        int barriers = engine.getBarrierCount();
+        buffer.putInt(LENGTH_OFFSET, length);
+        buffer.putInt(BARRIER_COUNT_OFFSET, barriers);
+        int offset = CELLS_OFFSET;
+        for (int i = 0; i < length; i++, offset += 4) {
+            buffer.putInt(offset, engine.getSnakeCell(i));
+        }
+        for (int i = 0; i < barriers; i++, offset += 4) {
+            buffer.putInt(offset, engine.getBarrierCell(i));
+        }
+        LONGS.setRelease(buffer, SEQUENCE_OFFSET, ++sequence);
+    }
+
+    /**
+     * The bot's direction for the last published state, or null if it has
+     * not answered yet. Counts the tick as answered or missed.
+     */
+    public Direction poll() {
+        Direction direction = answer();
+        if (direction != null) {
+            answered++;
+        } else if (sequence > 0) {
+            missed++;
+        }
+        return direction;
+    }
+
+    /**
+     * For headless games: publishes the state and waits up to waitNanos for
+     * the answer.
+     */
+    @Override
+    public Direction chooseDirection(GameEngine engine) {
+        publish(engine);
+        long deadline = System.nanoTime() + waitNanos;
+        for (int spins = 1; answer() == null && System.nanoTime() < deadline; spins++) {
+            spin(spins);
+        }
+        return poll();
+    }
+
+    /**
+     * Busy-waits briefly, yielding every SPINS_PER_YIELD calls so a bot on
+     * the same core still gets to run.
+     */
+    public static void spin(int spins) {
+        if (spins % SPINS_PER_YIELD == 0) {
+            Thread.yield();
+        } else {
+            Thread.onSpinWait();
+        }
+    }
+
+    private Direction answer() {
+        long answer = (long) LONGS.getAcquire(buffer, ANSWER_OFFSET);
+        if (sequence == 0 || answer >>> 2 != sequence) {
+            return null;
+        }
+        return DIRECTIONS[(int) (answer & 3)];
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
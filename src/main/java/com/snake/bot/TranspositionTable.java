@@ -0,0 +1,163 @@
+package com.snake.bot;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size table of visit counts and reward sums keyed by 64-bit state
+ * hashes, shared by all the threads of one MctsPolicy.
+ *
+ * Slots come in buckets of BUCKET_SIZE, and each bucket is guarded by one
+ * of STRIPES locks, so threads only contend when they touch buckets of the
+ * same stripe. A key lives in the bucket its low bits pick; when a bucket is
+ * full, the entry with the fewest visits makes room. The table never grows,
+ * so memory stays bounded however long a game runs.
+ */
+public class TranspositionTable {
+    private static final int BUCKET_SIZE = 4;
+    private static final int STRIPES = 256;
+    // Zero marks an empty slot, so a real key of zero is stored as this
+    private static final long ZERO_KEY = 0x9E3779B97F4A7C15L;
+
+    private final long[] keys;
+    private final int[] visits;
+    private final double[] rewards;
+    private final int bucketMask;
+    private final Object[] locks = new Object[STRIPES];
+    private final LongAdder replacements = new LongAdder();
+
+    public TranspositionTable(int capacity) {
+        int buckets = Integer.highestOneBit(Math.max(1, capacity / BUCKET_SIZE - 1)) << 1;
+        this.keys = new long[buckets * BUCKET_SIZE];
+        this.visits = new int[buckets * BUCKET_SIZE];
+        this.rewards = new double[buckets * BUCKET_SIZE];
+        this.bucketMask = buckets - 1;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Entries dropped to make room so far.
+     */
+    public long getReplacements() {
+        return replacements.sum();
+    }
+
+    /**
+     * Counts a visit to the state, adding it if it is new, and returns the
+     * visits it had before. The visit is counted before the rollout's reward
+     * is known, which keeps other threads from piling onto the same path.
+     */
+    public int addVisit(long key) {
+        key = normalize(key);
+        int bucket = bucket(key);
+        synchronized (lock(bucket)) {
+            int slot = find(bucket, key);
+            if (slot < 0) {
+                slot = claim(bucket, key);
+            }
+            return visits[slot]++;
+        }
+    }
+
+    /**
+     * Adds a rollout's reward to the state, if it is still in the table.
+     */
+    public void addReward(long key, double reward) {
+        key = normalize(key);
+        int bucket = bucket(key);
+        synchronized (lock(bucket)) {
+            int slot = find(bucket, key);
+            if (slot >= 0) {
+                rewards[slot] += reward;
+            }
+        }
+    }
+
+    public int getVisits(long key) {
+        key = normalize(key);
+        int bucket = bucket(key);
+        synchronized (lock(bucket)) {
+            int slot = find(bucket, key);
+            return slot < 0 ? 0 : visits[slot];
+        }
+    }
+
+    /**
+     * UCB1 score of the state: its mean reward plus an exploration bonus
+     * that shrinks with its visits. Unvisited states score infinity so each
+     * is tried once.
+     */
+    public double getUcb(long key, double logParentVisits, double exploration) {
+        key = normalize(key);
+        int bucket = bucket(key);
+        synchronized (lock(bucket)) {
+            int slot = find(bucket, key);
+            if (slot < 0 || visits[slot] == 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            int n = visits[slot];
+            return rewards[slot] / n + exploration * Math.sqrt(logParentVisits / n);
+        }
+    }
+
+    public void clear() {
+        for (int bucket = 0; bucket <= bucketMask; bucket++) {
+            synchronized (lock(bucket)) {
+                int first = bucket * BUCKET_SIZE;
+                Arrays.fill(keys, first, first + BUCKET_SIZE, 0);
+                Arrays.fill(visits, first, first + BUCKET_SIZE, 0);
+                Arrays.fill(rewards, first, first + BUCKET_SIZE, 0);
+            }
+        }
+    }
+
+    private static long normalize(long key) {
+        return key == 0 ? ZERO_KEY : key;
+    }
+
+    private int bucket(long key) {
+        return (int) (key ^ (key >>> 32)) & bucketMask;
+    }
+
+    private Object lock(int bucket) {
+        return locks[bucket & (STRIPES - 1)];
+    }
+
+    private int find(int bucket, long key) {
+        int first = bucket * BUCKET_SIZE;
+        for (int slot = first; slot < first + BUCKET_SIZE; slot++) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // Takes an empty slot, or else the one with the fewest visits
+    private int claim(int bucket, long key) {
+        int first = bucket * BUCKET_SIZE;
+        int victim = first;
+        for (int slot = first; slot < first + BUCKET_SIZE; slot++) {
+            if (keys[slot] == 0) {
+                victim = slot;
+                break;
+            }
+            if (visits[slot] < visits[victim]) {
+                victim = slot;
+            }
+        }
+        if (keys[victim] != 0) {
+            replacements.increment();
+        }
+        keys[victim] = key;
+        visits[victim] = 0;
+        rewards[victim] = 0;
+        return victim;
+    }
+}
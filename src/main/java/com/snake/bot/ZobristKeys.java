@@ -0,0 +1,47 @@
+package com.snake.bot;
+
+import com.snake.game.GameRandom;
+
+/**
+ * Random 64-bit keys for every (cell, content) pair of a board, plus the
+ * direction and a few pending growth values. A state's hash is the XOR of
+ * the keys of what it contains, so a move updates it with a handful of
+ * XORs instead of rehashing the board. Keys come from a fixed seed, so the
+ * same state hashes the same in every run.
+ */
+final class ZobristKeys {
+    static final int GROWTH_KEYS = 8;
+
+    final int columns;
+    final int rows;
+    final long[] body;
+    final long[] head;
+    final long[] food;
+    final long[] barrier;
+    final long[] direction = new long[4];
+    final long[] growth = new long[GROWTH_KEYS];
+
+    ZobristKeys(int columns, int rows) {
+        this.columns = columns;
+        this.rows = rows;
+        int cells = columns * rows;
+        GameRandom random = new GameRandom(0x5A0B7157L);
+        body = fill(new long[cells], random);
+        head = fill(new long[cells], random);
+        food = fill(new long[cells], random);
+        barrier = fill(new long[cells], random);
+        fill(direction, random);
+        fill(growth, random);
+    }
+
+    long growth(int pending) {
+        return growth[Math.min(pending, GROWTH_KEYS - 1)];
+    }
+
+    private static long[] fill(long[] keys, GameRandom random) {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+        return keys;
+    }
+}
@@ -1,5 +1,8 @@
 package com.snake.database;
 
+import com.snake.metrics.DbCallEvent;
+import com.snake.metrics.Histogram;
+import com.snake.metrics.Metrics;
 import com.snake.model.Score;
 import com.snake.model.User;
 import org.mindrot.jbcrypt.BCrypt;
@@ -12,9 +15,11 @@ public class DatabaseManager {
     private static final String DB_URL = "jdbc:sqlite:snake.db";
     private static DatabaseManager instance;
     private Connection connection;
+    private final Histogram callLatency = new Histogram("db call");
 
     private DatabaseManager() {
         initializeDatabase();
+        Metrics.register(callLatency);
     }
 
     public static DatabaseManager getInstance() {
@@ -79,50 +84,50 @@ public class DatabaseManager {
     // User Management Methods
     public boolean registerUser(String username, String password) {
         String sql = "INSERT INTO users (username, password) VALUES (?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            String hashedPassword = BCrypt.hashpw(password, BCrypt.gensalt());
-            pstmt.setString(1, username);
-            pstmt.setString(2, hashedPassword);
-            pstmt.executeUpdate();
-            return true;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
+        return timed("registerUser", false, () -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                String hashedPassword = BCrypt.hashpw(password, BCrypt.gensalt());
+                pstmt.setString(1, username);
+                pstmt.setString(2, hashedPassword);
+                pstmt.executeUpdate();
+                return true;
+            }
+        });
     }
 
     public User authenticateUser(String username, String password) {
         String sql = "SELECT * FROM users WHERE username = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                String storedHash = rs.getString("password");
-                if (BCrypt.checkpw(password, storedHash)) {
-                    return new User(
-                        rs.getInt("id"),
-                        rs.getString("username")
-                    );
+        return timed("authenticateUser", null, () -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setString(1, username);
+                ResultSet rs = pstmt.executeQuery();
+
+                if (rs.next()) {
+                    String storedHash = rs.getString("password");
+                    if (BCrypt.checkpw(password, storedHash)) {
+                        return new User(
+                            rs.getInt("id"),
+                            rs.getString("username")
+                        );
+                    }
                 }
+                return null;
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return null;
+        });
     }
 
     // Score Management Methods
     public void saveScore(int userId, int score, int level) {
         String sql = "INSERT INTO scores (user_id, score, level, date_played) VALUES (?, ?, ?, datetime('now'))";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            pstmt.setInt(2, score);
-            pstmt.setInt(3, level);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        timed("saveScore", null, () -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, score);
+                pstmt.setInt(3, level);
+                pstmt.executeUpdate();
+                return null;
+            }
+        });
     }
 
     public List<Score> getTopScores(int limit) {
@@ -133,25 +138,25 @@ public class DatabaseManager {
             JOIN users u ON s.user_id = u.id 
             ORDER BY s.score DESC 
             LIMIT ?""";
-            
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, limit);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                scores.add(new Score(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("username"),
-                    rs.getInt("score"),
-                    rs.getInt("level"),
-                    rs.getString("date_played")
-                ));
+
+        return timed("getTopScores", scores, () -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, limit);
+                ResultSet rs = pstmt.executeQuery();
+
+                while (rs.next()) {
+                    scores.add(new Score(
+                        rs.getInt("id"),
+                        rs.getInt("user_id"),
+                        rs.getString("username"),
+                        rs.getInt("score"),
+                        rs.getInt("level"),
+                        rs.getString("date_played")
+                    ));
+                }
+                return scores;
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return scores;
+        });
     }
 
     public void saveGameState(int userId, int level, int score) {
@@ -161,34 +166,36 @@ public class DatabaseManager {
             ON CONFLICT(user_id)
             DO UPDATE SET current_level = ?, current_score = ?
         """;
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            pstmt.setInt(2, level);
-            pstmt.setInt(3, score);
-            pstmt.setInt(4, level);
-            pstmt.setInt(5, score);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        timed("saveGameState", null, () -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, level);
+                pstmt.setInt(3, score);
+                pstmt.setInt(4, level);
+                pstmt.setInt(5, score);
+                pstmt.executeUpdate();
+                return null;
+            }
+        });
     }
 
     public int[] loadGameState(int userId) {
         String sql = "SELECT current_level, current_score FROM game_state WHERE user_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return new int[] {
-                    rs.getInt("current_level"),
-                    rs.getInt("current_score")
-                };
+        int[] defaults = {1, 0}; // Default values if no saved state
+        return timed("loadGameState", defaults, () -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, userId);
+                ResultSet rs = pstmt.executeQuery();
+
+                if (rs.next()) {
+                    return new int[] {
+                        rs.getInt("current_level"),
+                        rs.getInt("current_score")
+                    };
+                }
+                return defaults;
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return new int[] {1, 0}; // Default values if no saved state
+        });
     }
 
     public void updateUserLevel(int userId, int level) {
@@ -197,17 +204,53 @@ public class DatabaseManager {
             SET current_level = ?, current_score = 0 
             WHERE user_id = ?
         """;
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, level);
-            pstmt.setInt(2, userId);
-            
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected == 0) {
-                // If no rows were updated, insert a new record
-                saveGameState(userId, level, 0);
+        timed("updateUserLevel", null, () -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, level);
+                pstmt.setInt(2, userId);
+
+                int rowsAffected = pstmt.executeUpdate();
+                if (rowsAffected == 0) {
+                    // If no rows were updated, insert a new record
+                    saveGameState(userId, level, 0);
+                }
+                return null;
             }
+        });
+    }
+
+    /**
+     * Latency of every public query and update, in nanoseconds.
+     */
+    public Histogram getCallLatencyHistogram() {
+        return callLatency;
+    }
+
+    // A query or update run by timed(); SQL errors are handled there
+    @FunctionalInterface
+    private interface SqlCall<T> {
+        T run() throws SQLException;
+    }
+
+    // Runs body, recording its latency and a DbCallEvent; on an SQL error prints it and returns fallback
+    private <T> T timed(String method, T fallback, SqlCall<T> body) {
+        long start = System.nanoTime();
+        DbCallEvent event = new DbCallEvent();
+        event.begin();
+        try {
+            return body.run();
         } catch (SQLException e) {
             e.printStackTrace();
+            return fallback;
+        } finally {
+            // Calls can come from more than one thread, Histogram expects a single writer
+            synchronized (callLatency) {
+                callLatency.record(System.nanoTime() - start);
+            }
+            if (event.shouldCommit()) {
+                event.method = method;
+                event.commit();
+            }
         }
     }
 
@@ -0,0 +1,151 @@
+package com.snake.game;
+
+import com.snake.metrics.FramePaintEvent;
+import com.snake.metrics.Histogram;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+
+/**
+ * Active-rendering alternative to painting through Swing. A Canvas with a
+ * 2-3 buffer BufferStrategy is drawn by its own render loop, so the time a
+ * frame reaches the screen is decided by show() instead of RepaintManager
+ * coalescing. Each pass updates the shared FrameRenderer, copies the frame
+ * into the back buffer and flips, redoing the frame when the buffer contents
+ * are lost or restored. Frames are only presented when something changed.
+ */
+public class ActiveView extends Canvas {
+    private static final long FRAME_MILLIS = 16;
+
+    private final GamePanel panel;
+    private final int buffers;
+    private final GameLoop renderLoop;
+    private final Histogram frameTime = new Histogram("frame time");
+    private final Histogram presentLatency = new Histogram("tick to present");
+    private volatile long contentsLost;
+    private volatile long contentsRestored;
+
+    private volatile BufferStrategy strategy;
+    private volatile boolean exposed = true;
+    private long lastTick = -1;
+    private boolean lastPaused;
+    private boolean lastShowingStats;
+
+    public ActiveView(GamePanel panel, int buffers) {
+        this.panel = panel;
+        this.buffers = Math.max(2, Math.min(3, buffers));
+        this.renderLoop = new GameLoop("snake-render", FRAME_MILLIS, this::render);
+        setIgnoreRepaint(true);
+        setFocusable(false); // keys go to the frame
+        renderLoop.start();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        createBufferStrategy(buffers);
+        strategy = getBufferStrategy();
+        exposed = true;
+        renderLoop.resume();
+    }
+
+    @Override
+    public void removeNotify() {
+        renderLoop.pause();
+        strategy = null;
+        super.removeNotify();
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        // The window was uncovered or resized; the render loop redraws it
+        exposed = true;
+    }
+
+    @Override
+    public void update(Graphics g) {
+        paint(g);
+    }
+
+    public void stop() {
+        renderLoop.stop();
+    }
+
+    /**
+     * Time from the start of a render pass to the end of show().
+     */
+    public Histogram getFrameTimeHistogram() {
+        return frameTime;
+    }
+
+    /**
+     * Time from a tick publishing its snapshot to the first show() of it.
+     */
+    public Histogram getPresentLatencyHistogram() {
+        return presentLatency;
+    }
+
+    public long getContentsLost() {
+        return contentsLost;
+    }
+
+    public long getContentsRestored() {
+        return contentsRestored;
+    }
+
+    public int getBuffers() {
+        return buffers;
+    }
+
+    // Runs on the render thread
+    private void render() {
+        BufferStrategy strategy = this.strategy;
+        if (strategy == null) {
+            return;
+        }
+        FramePaintEvent event = FramePaintEvent.beginIfEnabled();
+        long start = System.nanoTime();
+        FrameRenderer renderer = panel.getFrameRenderer();
+        GameSnapshot snapshot = renderer.update(panel.getSnapshots(), panel.isRunning());
+        boolean paused = panel.isPaused();
+        boolean showingStats = panel.isShowingStats();
+        boolean newTick = snapshot.getTick() != lastTick;
+        if (!newTick && renderer.getLastPixels() == 0 && paused == lastPaused
+                && showingStats == lastShowingStats && !exposed) {
+            return;
+        }
+        exposed = false;
+
+        boolean lost;
+        do {
+            boolean restored;
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                g.drawImage(renderer.getFrame(), 0, 0, null);
+                panel.recordPaint(System.nanoTime() - start, event, snapshot);
+                panel.drawOverlay(g);
+                g.dispose();
+                restored = strategy.contentsRestored();
+                if (restored) {
+                    contentsRestored++;
+                }
+            } while (restored);
+            strategy.show();
+            lost = strategy.contentsLost();
+            if (lost) {
+                contentsLost++;
+            }
+        } while (lost);
+        Toolkit.getDefaultToolkit().sync();
+
+        long now = System.nanoTime();
+        frameTime.record(now - start);
+        if (newTick) {
+            presentLatency.record(now - snapshot.getPublishTime());
+            panel.framePresented(snapshot);
+        }
+        lastTick = snapshot.getTick();
+        lastPaused = paused;
+        lastShowingStats = showingStats;
+    }
+}
@@ -0,0 +1,379 @@
+package com.snake.game;
+
+import com.snake.graphics.Direction;
+
+/**
+ * Headless arena where many snakes share one board: snake 0 for the player
+ * and the rest for bots. Every snake's body is in one shared OccupancyGrid,
+ * so a head running into any body is a single lookup, and all moves of a
+ * tick are resolved in one pass over the snakes instead of checking each
+ * head against every other snake.
+ *
+ * Snakes move at the same time. Tails that move this tick are cleared first,
+ * so following another snake's tail is safe. Two heads entering the same
+ * cell both die, detected with a per-cell claim stamp rather than a pairwise
+ * check. A dead snake's body is cleared and it respawns on a random free
+ * cell, so the number of snakes stays constant. If the board has no free
+ * cell left, the snake waits off the board, not alive and with no body,
+ * and respawns at the end of the first tick that frees one. Like GameEngine
+ * it is fully determined by its seed and the turns applied.
+ *
+ * With levelling on, scores follow GameEngine's rules: food is worth
+ * SCORE_PER_FOOD up to the level's maximum, and the first snake to reach
+ * the level threshold takes the whole arena up a level. That rebuilds the
+ * board with the new level's barriers and respawns every snake at score 0.
+ */
+public class ArenaEngine {
+    public static final int PLAYER = 0;
+    public static final int START_LENGTH = 3;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int columns;
+    private final int rows;
+    private final GameRandom random;
+    private final OccupancyGrid grid;
+    private final FreeCellSet free;
+
+    private final SnakeBody[] snakes;
+    private final Direction[] directions;
+    private final boolean[] alive;
+    private final int[] pendingGrowth;
+    private final int[] scores;
+    private final int[] targets;
+
+    // claimStamps[cell] == ticks when a head moves into cell this tick, by claimOwners[cell]
+    private final int[] claimStamps;
+    private final int[] claimOwners;
+
+    private final int[] foods;
+    private int foodCount;
+
+    private final boolean levelling;
+    private final int[] barriers = new int[Barriers.getMaxCount()];
+    private int barrierCount;
+    private int level;
+    private boolean levelUp;
+
+    private int ticks;
+    private long deaths;
+
+    public ArenaEngine(int columns, int rows, int snakeCount, int foodCount, long seed) {
+        this(columns, rows, snakeCount, foodCount, 1, false, seed);
+    }
+
+    public ArenaEngine(int columns, int rows, int snakeCount, int foodCount, int startLevel, boolean levelling,
+                       long seed) {
+        int maxBarriers = levelling || startLevel > 1 ? Barriers.getMaxCount() : 0;
+        if (snakeCount < 1 || foodCount < 0 || snakeCount + foodCount + maxBarriers > columns * rows / 4) {
+            throw new IllegalArgumentException("Too many snakes or foods for a " + columns + "x" + rows + " arena");
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.random = new GameRandom(seed);
+        this.grid = new OccupancyGrid(columns, rows);
+        this.free = new FreeCellSet(columns * rows);
+        this.snakes = new SnakeBody[snakeCount];
+        this.directions = new Direction[snakeCount];
+        this.alive = new boolean[snakeCount];
+        this.pendingGrowth = new int[snakeCount];
+        this.scores = new int[snakeCount];
+        this.targets = new int[snakeCount];
+        this.claimStamps = new int[columns * rows];
+        this.claimOwners = new int[columns * rows];
+        this.foods = new int[foodCount];
+        this.levelling = levelling;
+        this.level = Math.max(1, Math.min(GameEngine.MAX_LEVEL, startLevel));
+
+        for (int i = 0; i < snakeCount; i++) {
+            snakes[i] = new SnakeBody(64);
+        }
+        resetBoard();
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Number of snakes that have died so far, counting respawned ones again.
+     */
+    public long getDeaths() {
+        return deaths;
+    }
+
+    public int getSnakeCount() {
+        return snakes.length;
+    }
+
+    /**
+     * False only while the snake waits for a free cell to respawn on.
+     */
+    public boolean isAlive(int snake) {
+        return alive[snake];
+    }
+
+    public int getSnakeLength(int snake) {
+        return snakes[snake].length();
+    }
+
+    public int getSnakeCell(int snake, int index) {
+        return snakes[snake].get(index);
+    }
+
+    public int getHead(int snake) {
+        return snakes[snake].getHead();
+    }
+
+    public Direction getDirection(int snake) {
+        return directions[snake];
+    }
+
+    public int getScore(int snake) {
+        return scores[snake];
+    }
+
+    public int getFoodCount() {
+        return foodCount;
+    }
+
+    public int getFood(int index) {
+        return foods[index];
+    }
+
+    public OccupancyGrid getGrid() {
+        return grid;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getBarrierCount() {
+        return barrierCount;
+    }
+
+    public int getBarrierCell(int index) {
+        return barriers[index];
+    }
+
+    /**
+     * Returns true if moving a head onto (x, y) would end in a wall or a body.
+     */
+    public boolean isBlocked(int x, int y) {
+        if (x < 0 || x >= columns || y < 0 || y >= rows) {
+            return true;
+        }
+        byte content = grid.get(y * columns + x);
+        return content == OccupancyGrid.SNAKE || content == OccupancyGrid.BARRIER;
+    }
+
+    /**
+     * Turns a snake unless that would be a 180 degree turn. Returns false if
+     * the direction did not change.
+     */
+    public boolean turn(int snake, Direction newDirection) {
+        Direction direction = directions[snake];
+        if (newDirection == null || newDirection == direction || newDirection == GameEngine.opposite(direction)) {
+            return false;
+        }
+        directions[snake] = newDirection;
+        return true;
+    }
+
+    /**
+     * Moves every snake one cell and returns how many died this tick.
+     */
+    public int step() {
+        ticks++;
+        int snakeCount = snakes.length;
+
+        // Work out every head's target, then vacate the tails that move this tick
+        for (int i = 0; i < snakeCount; i++) {
+            if (snakes[i].length() == 0) {
+                continue; // Waiting to respawn
+            }
+            targets[i] = nextHeadCell(i);
+            if (pendingGrowth[i] > 0) {
+                pendingGrowth[i]--;
+            } else {
+                int tail = snakes[i].popTail();
+                grid.clear(tail);
+                free.add(tail);
+            }
+        }
+
+        // One pass: a target is deadly if it is off the board, a body, or claimed by another head
+        for (int i = 0; i < snakeCount; i++) {
+            if (snakes[i].length() == 0) {
+                continue;
+            }
+            int target = targets[i];
+            if (target < 0) {
+                alive[i] = false;
+                continue;
+            }
+            byte content = grid.get(target);
+            if (content == OccupancyGrid.SNAKE || content == OccupancyGrid.BARRIER) {
+                alive[i] = false;
+            }
+            if (claimStamps[target] == ticks) {
+                alive[i] = false;
+                alive[claimOwners[target]] = false;
+            } else {
+                claimStamps[target] = ticks;
+                claimOwners[target] = i;
+            }
+        }
+
+        // Move the survivors, then clear and respawn the dead
+        int died = 0;
+        for (int i = 0; i < snakeCount; i++) {
+            if (alive[i]) {
+                move(i, targets[i]);
+            }
+        }
+        for (int i = 0; i < snakeCount; i++) {
+            if (!alive[i] && snakes[i].length() > 0) {
+                clearSnake(i);
+                died++;
+            }
+        }
+        for (int i = 0; i < snakeCount; i++) {
+            if (!alive[i]) {
+                spawn(i);
+            }
+        }
+        deaths += died;
+        if (levelUp) {
+            levelUp = false;
+            level++;
+            resetBoard();
+        }
+        while (foodCount < foods.length && !free.isEmpty()) {
+            spawnFood();
+        }
+        return died;
+    }
+
+    // Clears everything, places the level's barriers away from the centre and respawns all snakes
+    private void resetBoard() {
+        grid.clear();
+        free.fill();
+        foodCount = 0;
+        barrierCount = Barriers.generate(
+            level, grid, free, (rows / 2) * columns + columns / 2, random, barriers);
+        for (int i = 0; i < snakes.length; i++) {
+            snakes[i].clear();
+            spawn(i);
+        }
+        while (foodCount < foods.length && !free.isEmpty()) {
+            spawnFood();
+        }
+    }
+
+    private int nextHeadCell(int snake) {
+        int head = snakes[snake].getHead();
+        int x = head % columns;
+        int y = head / columns;
+        switch (directions[snake]) {
+            case UP -> y--;
+            case DOWN -> y++;
+            case LEFT -> x--;
+            case RIGHT -> x++;
+        }
+        if (x < 0 || x >= columns || y < 0 || y >= rows) {
+            return -1;
+        }
+        return y * columns + x;
+    }
+
+    private void move(int snake, int target) {
+        if (grid.get(target) == OccupancyGrid.FOOD) {
+            removeFood(target);
+            pendingGrowth[snake]++;
+            scores[snake] += scoreFor(snake);
+        }
+        snakes[snake].pushHead(target);
+        grid.set(target, OccupancyGrid.SNAKE);
+        free.remove(target);
+    }
+
+    // Points for eating, and whether the snake finished the level
+    private int scoreFor(int snake) {
+        if (!levelling) {
+            return GameEngine.SCORE_PER_FOOD;
+        }
+        int increase = GameEngine.getScoreIncrease(level, scores[snake]);
+        if (GameEngine.isLevelComplete(level, scores[snake] + increase)) {
+            levelUp = true;
+        }
+        return increase;
+    }
+
+    /**
+     * Replaces a snake's body with cells, head first, for tests that need an
+     * exact board. With no cells the snake is left waiting to respawn.
+     */
+    void place(int snake, Direction direction, int growth, int... cells) {
+        clearSnake(snake);
+        for (int i = cells.length - 1; i >= 0; i--) {
+            snakes[snake].pushHead(cells[i]);
+            grid.set(cells[i], OccupancyGrid.SNAKE);
+            free.remove(cells[i]);
+        }
+        directions[snake] = direction;
+        pendingGrowth[snake] = growth;
+        alive[snake] = cells.length > 0;
+    }
+
+    private void clearSnake(int snake) {
+        SnakeBody body = snakes[snake];
+        for (int i = 0; i < body.length(); i++) {
+            int cell = body.get(i);
+            grid.clear(cell);
+            free.add(cell);
+        }
+        body.clear();
+    }
+
+    // Starts a snake as a single head on a random free cell; the rest grows in
+    private void spawn(int snake) {
+        if (free.isEmpty()) {
+            alive[snake] = false; // Tried again at the end of the next tick
+            return;
+        }
+        int cell = free.random(random);
+        free.remove(cell);
+        grid.set(cell, OccupancyGrid.SNAKE);
+        snakes[snake].pushHead(cell);
+        directions[snake] = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+        pendingGrowth[snake] = START_LENGTH - 1;
+        scores[snake] = 0;
+        alive[snake] = true;
+    }
+
+    private void spawnFood() {
+        int cell = free.random(random);
+        free.remove(cell);
+        grid.set(cell, OccupancyGrid.FOOD);
+        foods[foodCount++] = cell;
+    }
+
+    private void removeFood(int cell) {
+        for (int i = 0; i < foodCount; i++) {
+            if (foods[i] == cell) {
+                foods[i] = foods[--foodCount];
+                return;
+            }
+        }
+    }
+}
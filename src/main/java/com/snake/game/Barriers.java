@@ -0,0 +1,67 @@
+package com.snake.game;
+
+/**
+ * Barrier rules shared by every engine: how many barriers a level has and
+ * where they go. Level 1 has none and each level after it adds
+ * PER_LEVEL more.
+ */
+public final class Barriers {
+    public static final int PER_LEVEL = 5;
+
+    private Barriers() {
+    }
+
+    public static int getCount(int level) {
+        return (Math.max(1, Math.min(GameEngine.MAX_LEVEL, level)) - 1) * PER_LEVEL;
+    }
+
+    public static int getMaxCount() {
+        return getCount(GameEngine.MAX_LEVEL);
+    }
+
+    /**
+     * Places the level's barriers on random free cells away from the snake's
+     * head, marking them as BARRIER in the grid and removing them from the
+     * free set. The cells are written to {@code barriers}; returns how many
+     * were placed.
+     */
+    public static int generate(int level, OccupancyGrid grid, FreeCellSet free, int headCell,
+                               GameRandom random, int[] barriers) {
+        int barrierCount = 0;
+        int numBarriers = Math.min(getCount(level), barriers.length);
+        if (numBarriers == 0) return 0;
+
+        // Take the cells too close to the snake head out of the free set while placing,
+        // remembering which of the 3x3 square were free as bits so nothing is allocated
+        int columns = grid.getColumns();
+        int headX = headCell % columns;
+        int headY = headCell / columns;
+        int reserved = 0;
+        for (int i = 0; i < 9; i++) {
+            int x = headX + i % 3 - 1;
+            int y = headY + i / 3 - 1;
+            if (x < 0 || x >= columns || y < 0 || y >= grid.getRows()) {
+                continue;
+            }
+            int cell = y * columns + x;
+            if (free.contains(cell)) {
+                free.remove(cell);
+                reserved |= 1 << i;
+            }
+        }
+
+        while (barrierCount < numBarriers && !free.isEmpty()) {
+            int barrier = free.random(random);
+            free.remove(barrier);
+            grid.set(barrier, OccupancyGrid.BARRIER);
+            barriers[barrierCount++] = barrier;
+        }
+
+        for (int i = 0; i < 9; i++) {
+            if ((reserved & 1 << i) != 0) {
+                free.add((headY + i / 3 - 1) * columns + headX + i % 3 - 1);
+            }
+        }
+        return barrierCount;
+    }
+}
@@ -0,0 +1,56 @@
+package com.snake.game;
+
+/**
+ * Board cells the view still has to redraw. The tick thread adds the cells
+ * each step changed, and the EDT drains them when it paints, so changes from
+ * ticks that were never painted on their own are not lost. Each cell is kept
+ * once no matter how often it changed.
+ */
+public class DirtyRegion {
+    private final boolean[] marked;
+    private final int[] cells;
+    private int count;
+    private boolean all = true;
+
+    public DirtyRegion(int cellCount) {
+        this.marked = new boolean[cellCount];
+        this.cells = new int[cellCount];
+    }
+
+    public synchronized void add(int cell) {
+        if (!all && !marked[cell]) {
+            marked[cell] = true;
+            cells[count++] = cell;
+        }
+    }
+
+    /**
+     * Marks the whole board, e.g. after a reset or level change.
+     */
+    public synchronized void addAll() {
+        clearMarks();
+        all = true;
+    }
+
+    /**
+     * Copies the dirty cells into out and clears the region. Returns the
+     * number of cells, or -1 if the whole board has to be redrawn.
+     */
+    public synchronized int drain(int[] out) {
+        if (all) {
+            all = false;
+            return -1;
+        }
+        int drained = count;
+        System.arraycopy(cells, 0, out, 0, drained);
+        clearMarks();
+        return drained;
+    }
+
+    private void clearMarks() {
+        for (int i = 0; i < count; i++) {
+            marked[cells[i]] = false;
+        }
+        count = 0;
+    }
+}
@@ -0,0 +1,370 @@
+package com.snake.game;
+
+import com.snake.graphics.BackgroundChunks;
+import com.snake.graphics.BackgroundLayer;
+import com.snake.graphics.CompatibleImages;
+import com.snake.graphics.FoodSprites;
+import com.snake.graphics.SnakeSprites;
+import com.snake.metrics.Histogram;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Draws game snapshots into a retained frame image. Cells marked dirty by
+ * the tick thread are redrawn (with the 3x3 area their sprites can reach)
+ * and everything else is kept from the previous frame, so a typical tick
+ * touches a few thousand pixels instead of the whole board. Used by both the
+ * Swing GamePanel and the active-rendering ActiveView; only one thread may
+ * call update().
+ *
+ * Nothing here allocates per frame once the caches are built. Each dirty
+ * area is drawn into a small scratch tile through a translated Graphics and
+ * copied into the frame, because Graphics.setClip allocates on every call.
+ *
+ * A board bigger than the view is drawn through a camera that follows the
+ * head instead. The frame is view-sized and redrawn whole on every new tick
+ * from pre-rendered BackgroundChunks plus the sprites in view, so its cost
+ * depends on the view, not the board.
+ */
+public class FrameRenderer {
+    private static final Color PAUSE_SHADE = new Color(0, 0, 0, 150);
+    private static final Color PAUSE_TEXT_COLOR = Color.BLACK;
+    private static final Font PAUSE_FONT = new Font("Arial", Font.BOLD, 40);
+    private static final String PAUSE_TEXT = "PAUSED";
+
+    private final int columns;
+    private final int rows;
+    private final int viewColumns;
+    private final int viewRows;
+    private final boolean scrolling;
+    private final int unitSize;
+    private final int width;
+    private final int height;
+    private final FoodSprites foodSprites;
+    private final SnakeSprites snakeSprites;
+    private final BackgroundLayer backgroundLayer;
+    private final BackgroundChunks backgroundChunks;
+    private final Histogram pixelsPerFrame = new Histogram("pixels per frame", "px", 1);
+
+    private final DirtyRegion dirty;
+    private final int[] dirtyCells;
+    private BufferedImage frame;
+    private Graphics2D frameGraphics;
+    private BufferedImage tile;
+    private Graphics2D tileGraphics;
+    private boolean frameShowsBoard;
+    private long lastPixels;
+    private BufferedImage pauseText;
+    private int pauseTextAscent;
+
+    // Camera for boards bigger than the view, in cells; only the update() thread touches it
+    private int cameraX;
+    private int cameraY;
+    private long drawnTick = -1;
+    private volatile boolean redrawView = true;
+
+    public FrameRenderer(int columns, int rows, int unitSize) {
+        this(columns, rows, unitSize, columns, rows);
+    }
+
+    /**
+     * Renderer for a columns x rows board shown in a view of at most
+     * viewColumns x viewRows cells.
+     */
+    public FrameRenderer(int columns, int rows, int unitSize, int viewColumns, int viewRows) {
+        this.columns = columns;
+        this.rows = rows;
+        this.viewColumns = Math.min(columns, viewColumns);
+        this.viewRows = Math.min(rows, viewRows);
+        this.scrolling = columns > viewColumns || rows > viewRows;
+        this.unitSize = unitSize;
+        this.width = this.viewColumns * unitSize;
+        this.height = this.viewRows * unitSize;
+        this.foodSprites = new FoodSprites(unitSize);
+        this.snakeSprites = new SnakeSprites(unitSize);
+        if (scrolling) {
+            // The whole view is redrawn every tick, so there are no dirty cells to track
+            this.backgroundLayer = null;
+            this.backgroundChunks = new BackgroundChunks(unitSize);
+            this.dirty = null;
+            this.dirtyCells = null;
+        } else {
+            this.backgroundLayer = new BackgroundLayer(unitSize);
+            this.backgroundChunks = null;
+            this.dirty = new DirtyRegion(columns * rows);
+            this.dirtyCells = new int[columns * rows];
+        }
+    }
+
+    /**
+     * Whether the board is bigger than the view and drawn through a camera.
+     */
+    public boolean isScrolling() {
+        return scrolling;
+    }
+
+    /**
+     * Marks a cell for redrawing. Safe to call from any thread. Ignored when
+     * scrolling, where every new tick redraws the view.
+     */
+    public void markDirty(int cell) {
+        if (dirty != null) {
+            dirty.add(cell);
+        }
+    }
+
+    public void markAllDirty() {
+        if (dirty != null) {
+            dirty.addAll();
+        } else {
+            redrawView = true;
+        }
+    }
+
+    /**
+     * Brings the frame up to date with the latest snapshot and returns that
+     * snapshot. The board (barriers, grid, food, snake) is only drawn when
+     * showBoard is true, otherwise just the level background.
+     */
+    public GameSnapshot update(SnapshotBuffer snapshots, boolean showBoard) {
+        if (scrolling) {
+            return updateView(snapshots.latest(), showBoard);
+        }
+        // Drain before taking the snapshot: every drained cell was published by then
+        int dirtyCount = dirty.drain(dirtyCells);
+        GameSnapshot snapshot = snapshots.latest();
+        if (frame == null) {
+            frame = CompatibleImages.create(width, height, Transparency.OPAQUE);
+            frameGraphics = CompatibleImages.createGraphics(frame);
+            tile = CompatibleImages.create(3 * unitSize, 3 * unitSize, Transparency.OPAQUE);
+            tileGraphics = CompatibleImages.createGraphics(tile);
+            dirtyCount = -1;
+        }
+        if (showBoard != frameShowsBoard) {
+            frameShowsBoard = showBoard;
+            dirtyCount = -1;
+        }
+
+        long pixels = 0;
+        if (dirtyCount < 0) {
+            drawBoard(frameGraphics, snapshot, -1);
+            pixels = (long) width * height;
+        } else {
+            for (int i = 0; i < dirtyCount; i++) {
+                int cell = dirtyCells[i];
+                int x = Math.max(0, cellX(cell) - unitSize);
+                int y = Math.max(0, cellY(cell) - unitSize);
+                int regionWidth = Math.min(width, cellX(cell) + 2 * unitSize) - x;
+                int regionHeight = Math.min(height, cellY(cell) + 2 * unitSize) - y;
+                tileGraphics.translate(-x, -y);
+                drawBoard(tileGraphics, snapshot, cell);
+                tileGraphics.translate(x, y);
+                frameGraphics.drawImage(tile, x, y, x + regionWidth, y + regionHeight,
+                    0, 0, regionWidth, regionHeight, null);
+                pixels += (long) regionWidth * regionHeight;
+            }
+        }
+        if (pixels > 0) {
+            pixelsPerFrame.record(pixels);
+        }
+        lastPixels = pixels;
+        return snapshot;
+    }
+
+    private GameSnapshot updateView(GameSnapshot snapshot, boolean showBoard) {
+        if (frame == null) {
+            frame = CompatibleImages.create(width, height, Transparency.OPAQUE);
+            frameGraphics = CompatibleImages.createGraphics(frame);
+        }
+        boolean redraw = redrawView || showBoard != frameShowsBoard || snapshot.getTick() != drawnTick;
+        lastPixels = 0;
+        if (!redraw) {
+            return snapshot;
+        }
+        redrawView = false;
+        frameShowsBoard = showBoard;
+        drawnTick = snapshot.getTick();
+        if (snapshot.getSnakeLength() > 0) {
+            followHead(snapshot.getSnakeCell(0));
+        }
+        drawView(snapshot);
+        lastPixels = (long) width * height;
+        pixelsPerFrame.record(lastPixels);
+        return snapshot;
+    }
+
+    // Keeps the head at least a quarter of the view away from its edges
+    private void followHead(int head) {
+        int headX = head % columns;
+        int headY = head / columns;
+        int marginX = viewColumns / 4;
+        int marginY = viewRows / 4;
+        if (headX < cameraX + marginX) {
+            cameraX = headX - marginX;
+        } else if (headX >= cameraX + viewColumns - marginX) {
+            cameraX = headX - viewColumns + marginX + 1;
+        }
+        if (headY < cameraY + marginY) {
+            cameraY = headY - marginY;
+        } else if (headY >= cameraY + viewRows - marginY) {
+            cameraY = headY - viewRows + marginY + 1;
+        }
+        cameraX = Math.max(0, Math.min(columns - viewColumns, cameraX));
+        cameraY = Math.max(0, Math.min(rows - viewRows, cameraY));
+    }
+
+    private void drawView(GameSnapshot snapshot) {
+        int viewX = cameraX * unitSize;
+        int viewY = cameraY * unitSize;
+        backgroundChunks.draw(frameGraphics, columns, rows, snapshot.getLevel(), frameShowsBoard,
+            snapshot.getBarrierCells(), snapshot.getBarrierCount(), viewX, viewY, width, height);
+        if (!frameShowsBoard) {
+            return;
+        }
+
+        // Sprites spill into neighbouring cells, so anything one cell outside the view can reach it
+        int left = cameraX - 1;
+        int top = cameraY - 1;
+        int right = cameraX + viewColumns;
+        int bottom = cameraY + viewRows;
+        int food = snapshot.getFood();
+        if (food >= 0 && distanceOutside(food, left, top, right, bottom) == 0) {
+            foodSprites.draw(frameGraphics, snapshot.getFoodType(), snapshot.getFoodAge(),
+                cellX(food) - viewX, cellY(food) - viewY);
+        }
+        drawSnake(frameGraphics, snapshot, left, top, right, bottom, viewX, viewY);
+    }
+
+    // Draws the segments in cells left..right x top..bottom, shifted up and left by (offsetX, offsetY)
+    // pixels. Consecutive segments are neighbouring cells, so a segment d cells outside the area means
+    // the next d - 1 can't be inside it either; they are skipped unread, and a long snake mostly out of
+    // the area costs about one read per time it passes by rather than one per segment.
+    private void drawSnake(Graphics2D g2d, GameSnapshot snapshot, int left, int top, int right, int bottom,
+                           int offsetX, int offsetY) {
+        int length = snapshot.getSnakeLength();
+        int i = 0;
+        while (i < length) {
+            int part = snapshot.getSnakeCell(i);
+            int distance = distanceOutside(part, left, top, right, bottom);
+            if (distance > 0) {
+                i += distance;
+                continue;
+            }
+            if (i == 0) {
+                snakeSprites.drawHead(g2d, cellX(part) - offsetX, cellY(part) - offsetY, snapshot.getDirection());
+            } else {
+                snakeSprites.drawBody(g2d, cellX(part) - offsetX, cellY(part) - offsetY);
+            }
+            i++;
+        }
+    }
+
+    // Steps from cell to the nearest cell of left..right x top..bottom, 0 if it is inside
+    private int distanceOutside(int cell, int left, int top, int right, int bottom) {
+        int x = cell % columns;
+        int y = cell / columns;
+        return Math.max(0, Math.max(left - x, x - right)) + Math.max(0, Math.max(top - y, y - bottom));
+    }
+
+    /**
+     * Left edge of the view in board cells; 0 unless scrolling.
+     */
+    public int getCameraX() {
+        return cameraX;
+    }
+
+    /**
+     * Top edge of the view in board cells; 0 unless scrolling.
+     */
+    public int getCameraY() {
+        return cameraY;
+    }
+
+    /**
+     * Darkens the whole view and writes PAUSED across the middle.
+     */
+    public void drawPauseOverlay(Graphics g) {
+        g.setColor(PAUSE_SHADE);
+        g.fillRect(0, 0, width, height);
+        if (pauseText == null) {
+            pauseText = renderPauseText();
+        }
+        // Baseline at the vertical centre, as the text was always drawn
+        g.drawImage(pauseText, (width - pauseText.getWidth()) / 2, height / 2 - pauseTextAscent, null);
+    }
+
+    // Text layout allocates on every drawString, so the text is drawn once into an image
+    private BufferedImage renderPauseText() {
+        BufferedImage scratch = CompatibleImages.create(1, 1, Transparency.TRANSLUCENT);
+        Graphics2D g2d = scratch.createGraphics();
+        FontMetrics metrics = g2d.getFontMetrics(PAUSE_FONT);
+        g2d.dispose();
+
+        BufferedImage image = CompatibleImages.create(
+            Math.max(1, metrics.stringWidth(PAUSE_TEXT)), metrics.getHeight(), Transparency.TRANSLUCENT);
+        g2d = CompatibleImages.createGraphics(image);
+        g2d.setColor(PAUSE_TEXT_COLOR);
+        g2d.setFont(PAUSE_FONT);
+        g2d.drawString(PAUSE_TEXT, 0, metrics.getAscent());
+        g2d.dispose();
+        pauseTextAscent = metrics.getAscent();
+        return image;
+    }
+
+    public BufferedImage getFrame() {
+        return frame;
+    }
+
+    /**
+     * Pixels redrawn by the last update(), 0 if nothing changed.
+     */
+    public long getLastPixels() {
+        return lastPixels;
+    }
+
+    public Histogram getPixelsPerFrameHistogram() {
+        return pixelsPerFrame;
+    }
+
+    public int cellX(int cell) {
+        return (cell % columns) * unitSize;
+    }
+
+    public int cellY(int cell) {
+        return (cell / columns) * unitSize;
+    }
+
+    // Draws everything that can reach the 3x3 cells around center, or the whole board if center is -1
+    private void drawBoard(Graphics2D g2d, GameSnapshot snapshot, int center) {
+        // Draw the cached background for the level, with barriers and grid while playing
+        if (frameShowsBoard) {
+            backgroundLayer.draw(g2d, width, height, snapshot.getLevel(),
+                snapshot.getBarrierCells(), snapshot.getBarrierCount());
+        } else {
+            backgroundLayer.draw(g2d, width, height, snapshot.getLevel());
+            return;
+        }
+
+        // A sprite can overlap the 3x3 cells around center from up to two cells away
+        int left = 0;
+        int top = 0;
+        int right = columns - 1;
+        int bottom = rows - 1;
+        if (center >= 0) {
+            left = center % columns - 2;
+            top = center / columns - 2;
+            right = left + 4;
+            bottom = top + 4;
+        }
+
+        // Draw food
+        int food = snapshot.getFood();
+        if (food >= 0 && distanceOutside(food, left, top, right, bottom) == 0) {
+            foodSprites.draw(g2d, snapshot.getFoodType(), snapshot.getFoodAge(), cellX(food), cellY(food));
+        }
+
+        // Draw snake
+        drawSnake(g2d, snapshot, left, top, right, bottom, 0, 0);
+    }
+}
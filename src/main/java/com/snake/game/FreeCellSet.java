@@ -0,0 +1,142 @@
+package com.snake.game;
+
+/**
+ * The set of empty board cells, kept as a dense array plus a cell-to-index
+ * map. Adding and removing a cell is a swap-remove, and picking a random free
+ * cell is one random index, so food and barrier placement is O(1) at any fill
+ * ratio instead of rejection sampling.
+ *
+ * Boards above DENSE_LIMIT cells would need two ints per cell, so there the
+ * set keeps the occupied cells in an IntHashSet instead and picks random
+ * cells by rejection sampling. A large board is almost entirely free, so
+ * that nearly always succeeds on the first try; getRetries() counts the
+ * picks that didn't.
+ */
+public class FreeCellSet {
+    public static final int DENSE_LIMIT = 1 << 22;
+    // Rejection sampling gives up after this many misses and scans for a free cell
+    private static final int MAX_TRIES = 64;
+
+    private final int capacity;
+    private final int[] cells;
+    private final int[] positions;
+    private final IntHashSet occupied;
+    private int size;
+    private long retries;
+
+    public FreeCellSet(int capacity) {
+        this.capacity = capacity;
+        if (capacity <= DENSE_LIMIT) {
+            this.cells = new int[capacity];
+            this.positions = new int[capacity];
+            this.occupied = null;
+        } else {
+            this.cells = null;
+            this.positions = null;
+            this.occupied = new IntHashSet(1024);
+        }
+    }
+
+    /**
+     * Whether the set is stored as occupied cells, for boards above
+     * DENSE_LIMIT cells.
+     */
+    public boolean isSparse() {
+        return occupied != null;
+    }
+
+    /**
+     * Marks every cell on the board as free.
+     */
+    public void fill() {
+        if (occupied != null) {
+            occupied.clear();
+            size = capacity;
+            return;
+        }
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+            positions[i] = i;
+        }
+        size = cells.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int cell) {
+        if (occupied != null) {
+            return !occupied.contains(cell);
+        }
+        int position = positions[cell];
+        return position < size && cells[position] == cell;
+    }
+
+    public void add(int cell) {
+        if (occupied != null) {
+            if (occupied.remove(cell)) {
+                size++;
+            }
+            return;
+        }
+        if (contains(cell)) {
+            return;
+        }
+        cells[size] = cell;
+        positions[cell] = size;
+        size++;
+    }
+
+    public void remove(int cell) {
+        if (occupied != null) {
+            if (occupied.add(cell)) {
+                size--;
+            }
+            return;
+        }
+        if (!contains(cell)) {
+            return;
+        }
+        // Move the last free cell into the removed cell's slot
+        int position = positions[cell];
+        int last = cells[--size];
+        cells[position] = last;
+        positions[last] = position;
+    }
+
+    /**
+     * Occupied cells random() has drawn and rejected so far, counting each
+     * cell stepped over by the fallback scan. Always 0 for dense sets.
+     */
+    public long getRetries() {
+        return retries;
+    }
+
+    /**
+     * Returns a uniformly random free cell, or -1 if the board is full.
+     */
+    public int random(GameRandom random) {
+        if (size == 0) {
+            return -1;
+        }
+        if (occupied == null) {
+            return cells[random.nextInt(size)];
+        }
+        int cell = random.nextInt(capacity);
+        for (int tries = 1; tries < MAX_TRIES && occupied.contains(cell); tries++) {
+            retries++;
+            cell = random.nextInt(capacity);
+        }
+        // Only reached on an almost full board; not uniform, but always finds a cell
+        while (occupied.contains(cell)) {
+            retries++;
+            cell = cell + 1 == capacity ? 0 : cell + 1;
+        }
+        return cell;
+    }
+}
@@ -0,0 +1,602 @@
+package com.snake.game;
+
+import com.snake.graphics.Direction;
+
+/**
+ * Headless snake simulation. Holds the board, snake, food, level and score and
+ * advances them one tick per call to {@link #step()}. It has no Swing/AWT
+ * dependency, so GamePanel is just a view over it and simulators can tick it
+ * as fast as the CPU allows.
+ *
+ * Cells are packed as {@code y * columns + x}. Every random choice comes
+ * from a single seeded GameRandom, so a game is fully determined by its seed
+ * and the turns applied to it, which is what ReplayRecorder stores.
+ */
+public class GameEngine {
+    public static final int MAX_LEVEL = 10;
+    public static final int DEFAULT_LENGTH = 3;
+    public static final int SCORE_PER_FOOD = 10;
+    public static final int FOOD_TYPES = 5;
+    // Largest board side; 10,000 x 10,000 cells still fits packed cells in an int
+    public static final int MAX_BOARD_SIZE = 10_000;
+    // A step changes at most the tail, old head, new head and new food
+    private static final int MAX_CHANGES = 8;
+
+    // Bit flags returned by step()
+    public static final int EVENT_NONE = 0;
+    public static final int EVENT_ATE = 1;
+    public static final int EVENT_SCORED = 2;
+    public static final int EVENT_LEVEL_UP = 4;
+    public static final int EVENT_DIED = 8;
+
+    // Points needed for each level (index 0 = level 1)
+    private static final int[] LEVEL_THRESHOLDS = {
+        40,     // Level 1: Need 40 points to reach Level 2
+        50,     // Level 2: Need 50 points to reach Level 3
+        60,     // Level 3: Need 60 points to reach Level 4
+        70,     // Level 4: Need 70 points to reach Level 5
+        80,     // Level 5: Need 80 points to reach Level 6
+        90,     // Level 6: Need 90 points to reach Level 7
+        100,    // Level 7: Need 100 points to reach Level 8
+        110,    // Level 8: Need 110 points to reach Level 9
+        120,    // Level 9: Need 120 points to reach Level 10
+        999999  // Level 10: Max level
+    };
+
+    // Maximum score allowed per level before auto-advancing
+    private static final int[] LEVEL_MAX_SCORES = {
+        50,     // Level 1: Max 50 points
+        60,     // Level 2: Max 60 points
+        70,     // Level 3: Max 70 points
+        80,     // Level 4: Max 80 points
+        90,     // Level 5: Max 90 points
+        100,    // Level 6: Max 100 points
+        110,    // Level 7: Max 110 points
+        120,    // Level 8: Max 120 points
+        130,    // Level 9: Max 130 points
+        999999  // Level 10: No limit
+    };
+
+    public static int getLevelMaxScore(int level) {
+        return LEVEL_MAX_SCORES[level - 1];
+    }
+
+    public static int getLevelThreshold(int level) {
+        return LEVEL_THRESHOLDS[level];
+    }
+
+    /**
+     * Points for eating at this level and score: SCORE_PER_FOOD, cut down
+     * so the score stops at the level's maximum (except on the last level).
+     */
+    public static int getScoreIncrease(int level, int score) {
+        int maxScore = LEVEL_MAX_SCORES[level - 1];
+        if (level < MAX_LEVEL && score + SCORE_PER_FOOD > maxScore) {
+            return Math.max(0, maxScore - score); // Only add enough to reach max
+        }
+        return SCORE_PER_FOOD;
+    }
+
+    /**
+     * Whether this score finishes the level: it reached the threshold or the
+     * level's maximum, and there is a level after this one.
+     */
+    public static boolean isLevelComplete(int level, int score) {
+        return level < MAX_LEVEL && (score >= LEVEL_THRESHOLDS[level - 1] || score >= LEVEL_MAX_SCORES[level - 1]);
+    }
+
+    /**
+     * Whether a snake keeps its tail on its next move: it has segments still
+     * to add and there is room on the board for them.
+     */
+    public static boolean isGrowing(int pendingGrowth, int length, int cells) {
+        return pendingGrowth > 0 && length < cells;
+    }
+
+    /**
+     * Whether moving the head into a cell holding content kills the snake.
+     * Barriers always do; a body cell does unless it is the tail and the
+     * tail moves out of the way because the snake is not growing.
+     */
+    public static boolean isDeadly(byte content, boolean isTail, boolean growing) {
+        switch (content) {
+            case OccupancyGrid.BARRIER:
+                return true;
+            case OccupancyGrid.SNAKE:
+                return !isTail || growing;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Puts food on a uniformly random free cell and then draws its fruit
+     * type, both from random, so every engine using this draws the same
+     * sequence for the same seed. Marks the cell in grid and takes it out of
+     * free. Returns {@code type << 32 | cell}, the cell being -1 when the
+     * board is full.
+     */
+    static long placeFood(OccupancyGrid grid, FreeCellSet free, GameRandom random) {
+        int cell = free.random(random);
+        int type = random.nextInt(FOOD_TYPES);
+        if (cell >= 0) {
+            free.remove(cell);
+            grid.set(cell, OccupancyGrid.FOOD);
+        }
+        return (long) type << 32 | (cell & 0xFFFFFFFFL);
+    }
+
+    public static int getTickDelay(int level) {
+        return Math.max(50, 150 - ((level - 1) * 10));
+    }
+
+    private final int columns;
+    private final int rows;
+    private final long seed;
+    private final int initialLevel;
+    private final int initialScore;
+    private final GameRandom random;
+    private ReplayRecorder recorder;
+
+    private final SnakeBody snake;
+    private final OccupancyGrid grid;
+    private final FreeCellSet free;
+    private final int[] barriers = new int[Barriers.getMaxCount()];
+    private int barrierCount;
+    private int pendingGrowth;
+
+    private int food = -1;
+    private int foodType;
+    private Direction direction = Direction.RIGHT;
+    private boolean alive = true;
+    private int level;
+    private int score;
+    private long ticks;
+    private long foodSpawns;
+    private long foodSpawnRetries;
+    private long foodSpawnTick;
+
+    // Cells whose contents changed during the last step(), for partial redraws
+    private final int[] changedCells = new int[MAX_CHANGES];
+    private int changedCount;
+    private boolean boardChanged;
+
+    public GameEngine(int columns, int rows, int initialLevel, int initialScore, long seed) {
+        if (columns < 1 || rows < 1 || columns > MAX_BOARD_SIZE || rows > MAX_BOARD_SIZE) {
+            throw new IllegalArgumentException("Board must be 1 to " + MAX_BOARD_SIZE + " cells a side: "
+                + columns + "x" + rows);
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.seed = seed;
+        this.random = new GameRandom(seed);
+        this.snake = new SnakeBody(columns * rows);
+        this.grid = new OccupancyGrid(columns, rows);
+        this.free = new FreeCellSet(columns * rows);
+        this.level = Math.max(1, Math.min(MAX_LEVEL, initialLevel));
+        this.score = Math.max(0, initialScore);
+        this.initialLevel = level;
+        this.initialScore = score;
+        resetBoard(DEFAULT_LENGTH);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getInitialLevel() {
+        return initialLevel;
+    }
+
+    public int getInitialScore() {
+        return initialScore;
+    }
+
+    /**
+     * Number of step() calls made so far.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Number of times food has been placed, including after resets.
+     */
+    public long getFoodSpawns() {
+        return foodSpawns;
+    }
+
+    /**
+     * Occupied cells drawn and rejected while placing food. Only large
+     * boards, whose free cells are found by rejection sampling, ever retry.
+     */
+    public long getFoodSpawnRetries() {
+        return foodSpawnRetries;
+    }
+
+    /**
+     * Ticks since the current food was placed, used as its animation phase.
+     */
+    public long getFoodAge() {
+        return ticks - foodSpawnTick;
+    }
+
+    /**
+     * Records every turn, reset, score and level change from now on. Must be
+     * attached before the first tick.
+     */
+    public void setRecorder(ReplayRecorder recorder) {
+        if (ticks != 0) {
+            throw new IllegalStateException("Recorder must be attached before the first tick");
+        }
+        this.recorder = recorder;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = Math.max(1, Math.min(MAX_LEVEL, level));
+        if (recorder != null) {
+            recorder.level(ticks, this.level);
+        }
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+        if (recorder != null) {
+            recorder.score(ticks, score);
+        }
+    }
+
+    public boolean isAlive() {
+        return alive;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public int getFood() {
+        return food;
+    }
+
+    /**
+     * Which fruit the current food is drawn as, in [0, FOOD_TYPES).
+     */
+    public int getFoodType() {
+        return foodType;
+    }
+
+    /**
+     * Segments still to be added as the snake moves, e.g. after eating.
+     */
+    public int getPendingGrowth() {
+        return pendingGrowth;
+    }
+
+    public int getSnakeLength() {
+        return snake.length();
+    }
+
+    public int getSnakeCell(int index) {
+        return snake.get(index);
+    }
+
+    /**
+     * Moves made since the engine was created; see SnakeBody.getPushes().
+     */
+    public long getSnakePushes() {
+        return snake.getPushes();
+    }
+
+    /**
+     * Times the snake was rebuilt from scratch; see SnakeBody.getClears().
+     */
+    public int getSnakeResets() {
+        return snake.getClears();
+    }
+
+    public int getHead() {
+        return snake.getHead();
+    }
+
+    /**
+     * Returns true if moving the head onto (x, y) would end the game.
+     */
+    public boolean isBlocked(int x, int y) {
+        if (x < 0 || x >= columns || y < 0 || y >= rows) {
+            return true;
+        }
+        return checkCollision(y * columns + x);
+    }
+
+    public OccupancyGrid getGrid() {
+        return grid;
+    }
+
+    public FreeCellSet getFreeCells() {
+        return free;
+    }
+
+    public int getBarrierCount() {
+        return barrierCount;
+    }
+
+    public int getBarrierCell(int index) {
+        return barriers[index];
+    }
+
+    /**
+     * Puts a snake of the given length back at the centre of the board facing
+     * right, regenerates the level's barriers and spawns fresh food. Segments
+     * that do not fit to the left of the head are added as pending growth and
+     * appear as the snake moves.
+     */
+    public void reset(int length) {
+        if (recorder != null) {
+            recorder.reset(ticks, length);
+        }
+        resetBoard(length);
+    }
+
+    private void resetBoard(int length) {
+        length = Math.max(1, Math.min(length, columns * rows));
+        direction = Direction.RIGHT;
+        alive = true;
+
+        int headX = columns / 2;
+        int headY = rows / 2;
+        int placed = Math.min(length, headX + 1);
+        pendingGrowth = length - placed;
+        snake.clear();
+        grid.clear();
+        free.fill();
+        for (int i = 0; i < placed; i++) {
+            int cell = headY * columns + (headX - i);
+            snake.addTail(cell);
+            grid.set(cell, OccupancyGrid.SNAKE);
+            free.remove(cell);
+        }
+
+        // Generate barriers for current level
+        barrierCount = Barriers.generate(level, grid, free, snake.getHead(), random, barriers);
+
+        spawnFood();
+        boardChanged = true;
+    }
+
+    /**
+     * Changes direction unless the new direction is a 180 degree turn. Returns
+     * false if the direction did not change.
+     */
+    public boolean turn(Direction newDirection) {
+        if (newDirection == null || newDirection == direction || newDirection == opposite(direction)) {
+            return false;
+        }
+        direction = newDirection;
+        if (recorder != null) {
+            recorder.turn(ticks, newDirection);
+        }
+        return true;
+    }
+
+    /**
+     * Applies at most one queued turn: the oldest one that actually changes
+     * direction. Illegal or redundant turns before it are discarded. Returns
+     * the applied turn's timestamp, or 0 if none was applied.
+     */
+    public long applyNextTurn(InputQueue inputs) {
+        while (inputs.poll()) {
+            if (turn(inputs.getPolledDirection())) {
+                return inputs.getPolledTimestamp();
+            }
+        }
+        return 0;
+    }
+
+    public int step(Direction input) {
+        turn(input);
+        return step();
+    }
+
+    /**
+     * Advances the game by one tick and returns the EVENT_* flags describing
+     * what happened.
+     */
+    public int step() {
+        changedCount = 0;
+        boardChanged = false;
+        if (!alive) {
+            return EVENT_NONE;
+        }
+        ticks++;
+        int target = nextHeadCell();
+        if (target < 0 || checkCollision(target)) {
+            alive = false;
+            markChanged(snake.getHead()); // the head may have turned
+            return EVENT_DIED;
+        }
+        boolean ate = grid.get(target) == OccupancyGrid.FOOD;
+        move(target);
+        return ate ? eatFood() : EVENT_NONE;
+    }
+
+    // The tick phases below are package-private so the JMH module can time them separately
+
+    // Returns the cell the head moves into, or -1 if it would leave the board
+    int nextHeadCell() {
+        int head = snake.getHead();
+        int x = head % columns;
+        int y = head / columns;
+        switch (direction) {
+            case UP -> y--;
+            case DOWN -> y++;
+            case LEFT -> x--;
+            case RIGHT -> x++;
+        }
+
+        // Check if head touches borders
+        if (x < 0 || x >= columns || y < 0 || y >= rows) {
+            return -1;
+        }
+        return y * columns + x;
+    }
+
+    void move(int target) {
+        // Push the new head and pop the tail, keeping the tail while growing
+        if (isGrowing()) {
+            pendingGrowth--;
+        } else {
+            int tail = snake.popTail();
+            grid.clear(tail);
+            free.add(tail);
+            markChanged(tail);
+        }
+        markChanged(snake.getHead()); // the old head becomes a body segment
+        snake.pushHead(target);
+        grid.set(target, OccupancyGrid.SNAKE);
+        free.remove(target);
+        markChanged(target);
+    }
+
+    private void markChanged(int cell) {
+        if (changedCount < changedCells.length) {
+            changedCells[changedCount++] = cell;
+        } else {
+            boardChanged = true;
+        }
+    }
+
+    /**
+     * Number of cells changed by the last step(). When isBoardChanged() is
+     * true the whole board must be redrawn instead.
+     */
+    public int getChangedCount() {
+        return changedCount;
+    }
+
+    public int getChangedCell(int index) {
+        return changedCells[index];
+    }
+
+    /**
+     * True if the last step() rebuilt the board, for example on a level up.
+     * Also true after reset() until the next step().
+     */
+    public boolean isBoardChanged() {
+        return boardChanged;
+    }
+
+    private boolean isGrowing() {
+        return isGrowing(pendingGrowth, snake.length(), grid.size());
+    }
+
+    boolean checkCollision(int target) {
+        // Body and barrier collisions are a single grid lookup
+        return isDeadly(grid.get(target), target == snake.getTail(), isGrowing());
+    }
+
+    int eatFood() {
+        // Grow by one segment on the next move
+        pendingGrowth++;
+        int events = EVENT_ATE;
+
+        // Update score if not at max
+        int scoreIncrease = getScoreIncrease(level, score);
+        if (scoreIncrease > 0) {
+            score += scoreIncrease;
+            events |= EVENT_SCORED;
+
+            // Spawn new food only if we're not at max score
+            if (score < LEVEL_MAX_SCORES[level - 1]) {
+                spawnFood();
+            }
+        }
+
+        if (checkLevelProgression()) {
+            events |= EVENT_LEVEL_UP;
+        }
+        return events;
+    }
+
+    private boolean checkLevelProgression() {
+        // Level up if reached threshold or max score
+        if (isLevelComplete(level, score)) {
+            level++;
+            score = 0;
+            resetBoard(DEFAULT_LENGTH); // Reset to default length for new level
+            return true;
+        }
+        return false;
+    }
+
+    void spawnFood() {
+        // One random pick from the free cells; no food when the board is full
+        long retries = free.getRetries();
+        long placed = placeFood(grid, free, random);
+        foodSpawnRetries += free.getRetries() - retries;
+        food = (int) placed;
+        foodType = (int) (placed >>> 32);
+        foodSpawns++;
+        foodSpawnTick = ticks;
+        if (food >= 0) {
+            markChanged(food);
+        }
+    }
+
+    // Puts the current food back on the free list (benchmarks only)
+    void clearFood() {
+        if (food >= 0 && grid.get(food) == OccupancyGrid.FOOD) {
+            grid.clear(food);
+            free.add(food);
+            markChanged(food);
+        }
+        food = -1;
+    }
+
+    void setPendingGrowth(int pendingGrowth) {
+        this.pendingGrowth = pendingGrowth;
+    }
+
+    /**
+     * Hash of the full game state, used to check that a replay reproduced a
+     * game exactly.
+     */
+    public long stateHash() {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < snake.length(); i++) {
+            hash = (hash ^ snake.get(i)) * 0x100000001B3L;
+        }
+        for (int i = 0; i < barrierCount; i++) {
+            hash = (hash ^ barriers[i]) * 0x100000001B3L;
+        }
+        long[] fields = {food, foodType, direction.ordinal(), level, score, pendingGrowth, alive ? 1 : 0, ticks};
+        for (long field : fields) {
+            hash = (hash ^ field) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    public static Direction opposite(Direction direction) {
+        return switch (direction) {
+            case UP -> Direction.DOWN;
+            case DOWN -> Direction.UP;
+            case LEFT -> Direction.RIGHT;
+            case RIGHT -> Direction.LEFT;
+        };
+    }
+}
@@ -0,0 +1,118 @@
+package com.snake.game;
+
+import com.snake.metrics.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed-timestep tick scheduler running on its own thread. Deadlines advance
+ * by exactly one period from the previous deadline, so there is no drift, and
+ * a late thread catches up by running the missed ticks back to back (up to
+ * MAX_CATCH_UP). It sleeps with parkNanos and spins for the last stretch
+ * before a deadline, which keeps tick-interval jitter well under a
+ * millisecond. The period can be changed at any time without recreating
+ * anything.
+ */
+public class GameLoop implements Runnable {
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final int MAX_CATCH_UP = 5;
+
+    private final Runnable tick;
+    private final Thread thread;
+    private final Histogram jitter = new Histogram("tick jitter");
+
+    private volatile long periodNanos;
+    private volatile boolean paused = true;
+    private volatile boolean stopped;
+
+    public GameLoop(String name, long periodMillis, Runnable tick) {
+        this.tick = tick;
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+        this.thread.setPriority(Thread.MAX_PRIORITY);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public void setPeriodMillis(long periodMillis) {
+        periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+    }
+
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    /**
+     * Histogram of |actual tick interval - period| in nanoseconds.
+     */
+    public Histogram getJitterHistogram() {
+        return jitter;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        paused = false;
+        LockSupport.unpark(thread);
+    }
+
+    public void stop() {
+        stopped = true;
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        long deadline = 0;
+        long lastTick = 0;
+        while (!stopped) {
+            if (paused) {
+                LockSupport.park(this);
+                // Start a fresh schedule after a pause instead of catching up
+                deadline = System.nanoTime() + periodNanos;
+                lastTick = 0;
+                continue;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(this, remaining - SPIN_NANOS);
+                continue;
+            }
+            while (remaining > 0) {
+                Thread.onSpinWait();
+                remaining = deadline - System.nanoTime();
+            }
+
+            long now = System.nanoTime();
+            long period = periodNanos;
+            if (lastTick != 0) {
+                jitter.record(Math.abs((now - lastTick) - period));
+            }
+            lastTick = now;
+
+            try {
+                tick.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+
+            // Advance from the previous deadline so errors don't accumulate
+            deadline += period;
+            if (now - deadline > MAX_CATCH_UP * period) {
+                // Too far behind, drop the missed ticks rather than bursting
+                deadline = now + period;
+            }
+        }
+    }
+}
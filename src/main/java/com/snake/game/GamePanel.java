@@ -1,83 +1,101 @@
 package com.snake.game;
 
 import com.snake.ui.GameFrame;
+import com.snake.bot.AutopilotPolicy;
+import com.snake.bot.SharedMemoryBridge;
 import com.snake.graphics.Direction;
-import com.snake.graphics.SnakeRenderer;
-import com.snake.graphics.FoodRenderer;
-import com.snake.graphics.BackgroundRenderer;
-import com.snake.model.GameLevel;
+import com.snake.metrics.FoodSpawnEvent;
+import com.snake.metrics.FramePaintEvent;
+import com.snake.metrics.GameTickEvent;
+import com.snake.metrics.Histogram;
+import com.snake.metrics.LevelChangeEvent;
+import com.snake.metrics.Metrics;
 
 import javax.swing.*;
 import java.awt.*;
 import javax.swing.SwingUtilities;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.Dialog.ModalityType;
-import java.util.ArrayList;
-import java.util.Random;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
 
-public class GamePanel extends JPanel implements ActionListener {
+public class GamePanel extends JPanel {
     private static final int UNIT_SIZE = 25;
     private static final int SCREEN_WIDTH = 600;
     private static final int SCREEN_HEIGHT = 600;
-    private static final int GAME_UNITS = (SCREEN_WIDTH * SCREEN_HEIGHT) / (UNIT_SIZE * UNIT_SIZE);
-    private static final int MAX_LEVEL = 10;
-    
-    // Points needed for each level (index 0 = level 1)
-    private static final int[] LEVEL_THRESHOLDS = {
-        40,     // Level 1: Need 40 points to reach Level 2
-        50,     // Level 2: Need 50 points to reach Level 3
-        60,     // Level 3: Need 60 points to reach Level 4
-        70,     // Level 4: Need 70 points to reach Level 5
-        80,     // Level 5: Need 80 points to reach Level 6
-        90,     // Level 6: Need 90 points to reach Level 7
-        100,    // Level 7: Need 100 points to reach Level 8
-        110,    // Level 8: Need 110 points to reach Level 9
-        120,    // Level 9: Need 120 points to reach Level 10
-        999999  // Level 10: Max level
-    };
-    
-    // Maximum score allowed per level before auto-advancing
-    private static final int[] LEVEL_MAX_SCORES = {
-        50,     // Level 1: Max 50 points
-        60,     // Level 2: Max 60 points
-        70,     // Level 3: Max 70 points
-        80,     // Level 4: Max 80 points
-        90,     // Level 5: Max 90 points
-        100,    // Level 6: Max 100 points
-        110,    // Level 7: Max 110 points
-        120,    // Level 8: Max 120 points
-        130,    // Level 9: Max 130 points
-        999999  // Level 10: No limit
-    };
-    
+    private static final int VIEW_COLUMNS = SCREEN_WIDTH / UNIT_SIZE;
+    private static final int VIEW_ROWS = SCREEN_HEIGHT / UNIT_SIZE;
+    // -Dsnake.board=COLUMNSxROWS plays on a bigger board seen through a camera
+    private static final int[] BOARD = parseBoardSize(System.getProperty("snake.board"));
+    private static final int COLUMNS = BOARD[0];
+    private static final int ROWS = BOARD[1];
+    private static final int MAX_LEVEL = GameEngine.MAX_LEVEL;
+    private static final Path REPLAY_DIR = Path.of("replays");
+    // -Dsnake.rendering=active draws through an ActiveView with -Dsnake.buffers (2 or 3)
+    private static final boolean ACTIVE_RENDERING = "active".equals(System.getProperty("snake.rendering"));
+    // The autopilot's search arrays are sized for the whole board, so huge boards go without
+    private static final int AUTOPILOT_MAX_CELLS = 1 << 20;
+    // -Dsnake.bridge=FILE lets an external bot steer through a SharedMemoryBridge on that file
+    private static final String BRIDGE_FILE = System.getProperty("snake.bridge");
+
+    // "200x150" -> {200, 150}; falls back to the view size when missing or invalid
+    private static int[] parseBoardSize(String value) {
+        if (value != null) {
+            String[] parts = value.toLowerCase().split("x");
+            try {
+                int columns = Integer.parseInt(parts[0].trim());
+                int rows = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : columns;
+                if (columns >= VIEW_COLUMNS && rows >= VIEW_ROWS
+                        && columns <= GameEngine.MAX_BOARD_SIZE && rows <= GameEngine.MAX_BOARD_SIZE) {
+                    return new int[]{columns, rows};
+                }
+            } catch (NumberFormatException e) {
+                // Fall through to the default below
+            }
+            System.err.println("Ignoring snake.board=" + value + ", expected " + VIEW_COLUMNS + "x" + VIEW_ROWS
+                + " to " + GameEngine.MAX_BOARD_SIZE + "x" + GameEngine.MAX_BOARD_SIZE);
+        }
+        return new int[]{VIEW_COLUMNS, VIEW_ROWS};
+    }
+
     public static int getLevelMaxScore(int level) {
-        return LEVEL_MAX_SCORES[level - 1];
+        return GameEngine.getLevelMaxScore(level);
     }
     
     public static int getLevelThreshold(int level) {
-        return LEVEL_THRESHOLDS[level];
+        return GameEngine.getLevelThreshold(level);
     }
 
-    private final ArrayList<Point> snakeParts = new ArrayList<>();
-    private Point food;
-    private Direction direction = Direction.RIGHT;
-    private boolean running = false;
-    private final Random random;
-    private int score;
-    private Timer timer;
+    private final GameEngine engine;
+    private final GameLoop gameLoop;
+    private final SnapshotBuffer snapshots = new SnapshotBuffer();
+    private final InputQueue inputs = new InputQueue(8);
+    private final Histogram inputLatency = new Histogram("input to render");
+    private final Histogram tickTime = new Histogram("tick duration");
+    private final Histogram paintTime = new Histogram("paint duration");
+    private final Histogram foodSpawnTickTime = new Histogram("food spawn tick");
+    private final Histogram foodSpawnRetries = new Histogram("food spawn retries", "", 1);
+    private final Histogram autopilotTime = new Histogram("autopilot decision");
+    // Demo mode: F2 or -Dsnake.autopilot=true lets the autopilot steer instead of the keys
+    private final AutopilotPolicy autopilot = new AutopilotPolicy();
+    private volatile boolean autopilotOn;
+    private final SharedMemoryBridge bridge;
+    private final StatsOverlay statsOverlay;
+    private volatile boolean showStats;
+    private long lastPaintedTick;
+    // Retained frame; each paint only redraws the cells that changed since the last one
+    private final FrameRenderer frameRenderer = new FrameRenderer(COLUMNS, ROWS, UNIT_SIZE, VIEW_COLUMNS, VIEW_ROWS);
+    private final ActiveView activeView;
+    private volatile boolean running = false;
     private final GameFrame gameFrame;
-    private int level;
-    private boolean paused = false;
-    private FoodRenderer foodRenderer;
+    private volatile boolean paused = false;
+    private final ReplayRecorder replay;
     private int gameOvers = 0;
 
     public GamePanel(GameFrame gameFrame, int initialLevel, int initialScore, boolean showInitialProgress) {
         this.gameFrame = gameFrame;
-        this.random = new Random();
-        this.level = Math.max(1, initialLevel); // Ensure level is at least 1
-        this.score = Math.max(0, initialScore); // Ensure score is at least 0
         this.gameOvers = 0; // Reset game overs counter
         
         setPreferredSize(new Dimension(SCREEN_WIDTH, SCREEN_HEIGHT));
@@ -85,37 +103,210 @@ public class GamePanel extends JPanel implements ActionListener {
         setFocusable(true);
         
         // Initialize snake and food
-        foodRenderer = new FoodRenderer();
-        resetSnake();
+        // The whole session is driven from one seed and recorded as a replay
+        engine = new GameEngine(COLUMNS, ROWS, initialLevel, initialScore, new SecureRandom().nextLong());
+        replay = new ReplayRecorder(engine);
+        bridge = openBridge();
+        publish(0);
         
-        // Set up game speed based on initial level
-        updateGameSpeed();
+        // Ticks run on their own thread, paused until the game starts
+        gameLoop = new GameLoop("snake-tick", GameEngine.getTickDelay(engine.getLevel()), this::tick);
+        gameLoop.start();
+
+        if (ACTIVE_RENDERING) {
+            setLayout(new BorderLayout());
+            activeView = new ActiveView(this, Integer.getInteger("snake.buffers", 2));
+            activeView.setPreferredSize(new Dimension(SCREEN_WIDTH, SCREEN_HEIGHT));
+            add(activeView, BorderLayout.CENTER);
+        } else {
+            activeView = null;
+        }
+
+        // Visible to JConsole/JMC under com.snake:type=Histogram
+        Histogram[] histograms = {tickTime, paintTime, gameLoop.getJitterHistogram(), foodSpawnTickTime,
+            foodSpawnRetries, inputLatency, getPixelsPerFrameHistogram(), autopilotTime};
+        for (Histogram histogram : histograms) {
+            Metrics.register(histogram);
+        }
+        if (activeView != null) {
+            Metrics.register(activeView.getFrameTimeHistogram());
+            Metrics.register(activeView.getPresentLatencyHistogram());
+        }
+        statsOverlay = activeView == null
+            ? new StatsOverlay(tickTime, paintTime, gameLoop.getJitterHistogram(), inputLatency)
+            : new StatsOverlay(tickTime, paintTime, gameLoop.getJitterHistogram(), inputLatency,
+                activeView.getFrameTimeHistogram(), activeView.getPresentLatencyHistogram());
+        autopilotOn = Boolean.getBoolean("snake.autopilot") && isAutopilotAvailable();
         
         // We'll update the UI after GameFrame is fully constructed
     }
 
+    private static SharedMemoryBridge openBridge() {
+        if (BRIDGE_FILE == null) {
+            return null;
+        }
+        try {
+            return new SharedMemoryBridge(Path.of(BRIDGE_FILE), COLUMNS, ROWS, 0);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Bot bridge disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Hands the engine's state to the renderer and, if one is attached, the external bot
+    private void publish(long inputTimestamp) {
+        snapshots.publish(engine, inputTimestamp);
+        if (bridge != null) {
+            bridge.publish(engine);
+        }
+    }
+
+    private static boolean isAutopilotAvailable() {
+        return (long) COLUMNS * ROWS <= AUTOPILOT_MAX_CELLS;
+    }
+
     private void updateGameSpeed() {
-        int delay = Math.max(50, 150 - ((level - 1) * 10));
-        if (timer != null) {
-            timer.stop();
+        gameLoop.setPeriodMillis(GameEngine.getTickDelay(engine.getLevel()));
+    }
+
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    public GameLoop getGameLoop() {
+        return gameLoop;
+    }
+
+    /**
+     * Histogram of nanoseconds from a key press to the end of the first paint
+     * showing its turn.
+     */
+    public Histogram getInputLatencyHistogram() {
+        return inputLatency;
+    }
+
+    /**
+     * Histogram of pixels redrawn into the frame per paint.
+     */
+    public Histogram getPixelsPerFrameHistogram() {
+        return frameRenderer.getPixelsPerFrameHistogram();
+    }
+
+    /**
+     * Duration of each tick on the tick thread: applying input, stepping,
+     * publishing the snapshot and marking dirty cells.
+     */
+    public Histogram getTickTimeHistogram() {
+        return tickTime;
+    }
+
+    /**
+     * Time to bring the frame up to date and copy it out, per paint.
+     */
+    public Histogram getPaintTimeHistogram() {
+        return paintTime;
+    }
+
+    /**
+     * Duration of the ticks that ate food and so placed a new one.
+     */
+    public Histogram getFoodSpawnTickHistogram() {
+        return foodSpawnTickTime;
+    }
+
+    /**
+     * Occupied cells drawn and rejected per food placement. Only boards big
+     * enough for a sparse FreeCellSet ever record anything but 0.
+     */
+    public Histogram getFoodSpawnRetriesHistogram() {
+        return foodSpawnRetries;
+    }
+
+    /**
+     * Histogram of nanoseconds the autopilot spends choosing a direction.
+     */
+    public Histogram getAutopilotHistogram() {
+        return autopilotTime;
+    }
+
+    /**
+     * The active-rendering view, or null when painting through Swing.
+     */
+    public ActiveView getActiveView() {
+        return activeView;
+    }
+
+    /**
+     * The external bot's bridge, with its answered and missed tick counts,
+     * or null when no bot is attached.
+     */
+    public SharedMemoryBridge getBridge() {
+        return bridge;
+    }
+
+    FrameRenderer getFrameRenderer() {
+        return frameRenderer;
+    }
+
+    SnapshotBuffer getSnapshots() {
+        return snapshots;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void shutdown() {
+        gameLoop.stop();
+        if (activeView != null) {
+            activeView.stop();
+        }
+        if (bridge != null) {
+            try {
+                bridge.close();
+            } catch (IOException e) {
+                System.err.println("Error closing bot bridge: " + e.getMessage());
+            }
         }
-        timer = new Timer(delay, this);
-        if (running && !paused) {
-            timer.start();
+        saveReplay();
+    }
+
+    public byte[] getReplay() {
+        synchronized (engine) {
+            replay.finish(engine);
+        }
+        return replay.toByteArray();
+    }
+
+    private void saveReplay() {
+        try {
+            Files.createDirectories(REPLAY_DIR);
+            Path file = REPLAY_DIR.resolve(String.format("%016x.snkr", engine.getSeed()));
+            Files.write(file, getReplay());
+        } catch (IOException e) {
+            System.err.println("Error saving replay: " + e.getMessage());
         }
     }
 
     public int getCurrentLevel() {
-        return level;
+        return engine.getLevel();
     }
 
     public void setLevel(int level) {
-        this.level = level;
+        synchronized (engine) {
+            engine.setLevel(level);
+        }
         updateGameSpeed();
     }
 
     public void setScore(int score) {
-        this.score = score;
+        synchronized (engine) {
+            engine.setScore(score);
+        }
     }
 
     public int getAttemptsRemaining() {
@@ -123,22 +314,18 @@ public class GamePanel extends JPanel implements ActionListener {
     }
 
     public void completeReset() {
-        // Store current level before reset
-        int currentLevel = this.level;
-        
-        // Reset score and attempts
-        score = 0;
-        gameOvers = 0;
-        
         // Reset game state
         running = false;
         paused = false;
+        gameLoop.pause();
+
+        // Reset score and attempts, the level is preserved
+        int currentLevel = engine.getLevel();
+        setScore(0);
+        gameOvers = 0;
         
         // Reset snake
-        resetSnake();
-        
-        // Restore the level (persistence)
-        this.level = currentLevel;
+        resetSnakeWithLength(GameEngine.DEFAULT_LENGTH);
         
         // Reset game speed and update UI with preserved level
         updateGameSpeed();
@@ -146,84 +333,28 @@ public class GamePanel extends JPanel implements ActionListener {
         gameFrame.updateScore(0);
         
         // Show progress needed for next level
-        int pointsNeeded = LEVEL_THRESHOLDS[currentLevel - 1];
+        int pointsNeeded = GameEngine.getLevelThreshold(currentLevel - 1);
         gameFrame.showLevelProgress(pointsNeeded);
     }
 
-    private void checkLevelProgression() {
-        if (level < MAX_LEVEL) {
-            int maxScore = LEVEL_MAX_SCORES[level - 1];
-            
-            // Level up if reached threshold or max score
-            if (score >= LEVEL_THRESHOLDS[level - 1] || score >= maxScore) {
-                // Level up
-                level++;
-                score = 0;
-                gameOvers = 0; // Reset attempts for new level
-                
-                updateGameSpeed();
-                resetSnakeWithLength(3); // Reset to default length for new level
-                gameFrame.updateLevel(level);
-                gameFrame.updateScore(score);
-                gameFrame.updateAttemptsLabel(3); // Reset attempts display
-                
-                // Show info for next level
-                if (level < MAX_LEVEL) {
-                    int targetScore = LEVEL_THRESHOLDS[level - 1]; // Points needed for next level
-                    String message = String.format("Level %d: Need %d points (Max: %d)", 
-                        level, targetScore, LEVEL_MAX_SCORES[level - 1]);
-                    gameFrame.showLevelProgress(targetScore);
-                    
-                    // Removed level up message for smoother gameplay
-                }
-            } else {
-                // Show remaining points needed for current level
-                int pointsNeeded = LEVEL_THRESHOLDS[level - 1] - score;
-                gameFrame.showLevelProgress(pointsNeeded);
-            }
-        }
-    }
-
-    private void resetSnake() {
-        resetSnakeWithLength(3); // Default length is 3
-    }
-    
     private void resetSnakeWithLength(int length) {
-        // Store the current length if needed
-        int currentLength = snakeParts.size();
-        
-        // Reset snake position
-        snakeParts.clear();
-        direction = Direction.RIGHT;
-        
-        // Initialize snake with specified length
-        for (int i = 0; i < length; i++) {
-            snakeParts.add(new Point(
-                SCREEN_WIDTH / 2 - (i * UNIT_SIZE), 
-                SCREEN_HEIGHT / 2
-            ));
+        synchronized (engine) {
+            engine.reset(length);
+            inputs.clear();
+            publish(0);
         }
-
-        // Generate barriers for current level
-        GameLevel currentLevel = GameLevel.getLevel(level);
-        if (currentLevel != null) {
-            currentLevel.generateBarriers(SCREEN_WIDTH, SCREEN_HEIGHT, UNIT_SIZE, snakeParts, food);
-        }
-
-        // Create new food
-        foodRenderer = new FoodRenderer();
-        spawnFood();
+        markAllDirty();
     }
 
     public void startGame() {
-        // Only start the timer and set running flag
+        // Only start the tick loop and set running flag
         running = true;
-        timer.start();
-        repaint();  // Refresh the display to show correct background
+        gameLoop.resume();
+        markAllDirty();  // Refresh the display to show correct background
     }
 
     public int getCurrentScore() {
-        return score;
+        return engine.getScore();
     }
 
     public void resetGame() {
@@ -233,188 +364,231 @@ public class GamePanel extends JPanel implements ActionListener {
             return;
         }
         
-        // Store current state
-        int currentScore = this.score;
-        int currentLevel = this.level;
         int attemptsLeft = 3 - gameOvers;
-        int currentLength = snakeParts.size();
         
         // Reset game state but keep score and level
         running = false;
         paused = false;
+        gameLoop.pause();
         
         // Reset snake position but keep the length if we have attempts left
-        resetSnakeWithLength(currentLength);
-        
-        // Restore score and level
-        this.score = currentScore;
-        this.level = currentLevel;
+        resetSnakeWithLength(engine.getSnakeLength());
         
         // Reset game speed
         updateGameSpeed();
         
         // Update UI
-        gameFrame.updateScore(currentScore);
-        gameFrame.updateLevel(currentLevel);
+        gameFrame.updateScore(engine.getScore());
+        gameFrame.updateLevel(engine.getLevel());
         gameFrame.updateAttemptsLabel(attemptsLeft);
     }
 
-    private void spawnFood() {
-        int x, y;
-        boolean validPosition;
-        GameLevel currentLevel = GameLevel.getLevel(level);
-        
-        do {
-            validPosition = true;
-            x = random.nextInt(SCREEN_WIDTH / UNIT_SIZE) * UNIT_SIZE;
-            y = random.nextInt(SCREEN_HEIGHT / UNIT_SIZE) * UNIT_SIZE;
-            Point potentialFood = new Point(x, y);
-            
-            // Check if food spawns on snake
-            for (Point part : snakeParts) {
-                if (part.x == x && part.y == y) {
-                    validPosition = false;
-                    break;
-                }
-            }
-            
-            // Check if food spawns on barrier
-            if (validPosition && currentLevel.isCollision(potentialFood)) {
-                validPosition = false;
-            }
-        } while (!validPosition);
-
-        food = new Point(x, y);
-    }
-
     public void pauseGame() {
         if (running) {
             paused = true;
-            timer.stop();
+            gameLoop.pause();
+            repaint(); // Pause overlay
         }
     }
 
     public void resumeGame() {
         if (running && paused) {
             paused = false;
-            timer.start();
+            gameLoop.resume();
+            repaint();
         }
     }
 
-    private void move() {
-        // Move body parts
-        for (int i = snakeParts.size() - 1; i > 0; i--) {
-            Point current = snakeParts.get(i);
-            Point previous = snakeParts.get(i - 1);
-            current.x = previous.x;
-            current.y = previous.y;
+    // Runs on the tick thread; UI updates are handed over to the EDT
+    private void tick() {
+        int events = advance();
+        if (showStats && activeView == null) {
+            repaint(0, 0, StatsOverlay.WIDTH, statsOverlay.getHeight());
+        }
+        if (events == GameEngine.EVENT_NONE) {
+            return;
         }
+        int level;
+        int score;
+        synchronized (engine) {
+            level = engine.getLevel();
+            score = engine.getScore();
+        }
+        if ((events & GameEngine.EVENT_DIED) != 0) {
+            gameLoop.pause();
+        } else if ((events & GameEngine.EVENT_LEVEL_UP) != 0) {
+            gameLoop.setPeriodMillis(GameEngine.getTickDelay(level));
+            inputs.clear(); // Stale turns don't apply to the new level's snake
+        }
+        SwingUtilities.invokeLater(() -> handleEvents(events, level, score));
+    }
 
-        // Move head
-        Point head = snakeParts.get(0);
-        switch (direction) {
-            case UP -> head.y -= UNIT_SIZE;
-            case DOWN -> head.y += UNIT_SIZE;
-            case LEFT -> head.x -= UNIT_SIZE;
-            case RIGHT -> head.x += UNIT_SIZE;
+    // Steps the engine once and publishes the result for painting; returns the EVENT_* flags
+    int advance() {
+        GameTickEvent tickEvent = GameTickEvent.beginIfEnabled();
+        long start = System.nanoTime();
+        int events;
+        long spawnRetries;
+        synchronized (engine) {
+            int previousLevel = engine.getLevel();
+            long inputTimestamp = 0;
+            if (bridge != null) {
+                // The bot had the whole tick to answer the last state; no answer keeps going straight
+                engine.turn(bridge.poll());
+                inputs.clear();
+            } else if (autopilotOn) {
+                long decisionStart = System.nanoTime();
+                engine.turn(autopilot.chooseDirection(engine));
+                autopilotTime.record(System.nanoTime() - decisionStart);
+                inputs.clear();
+            } else {
+                // Take one queued turn per tick so quick presses are not lost
+                inputTimestamp = engine.applyNextTurn(inputs);
+            }
+            long retries = engine.getFoodSpawnRetries();
+            events = engine.step();
+            spawnRetries = engine.getFoodSpawnRetries() - retries;
+            publish(inputTimestamp);
+            // After publishing, so a paint that drains these cells also sees this tick
+            markChanges();
+            commitEvents(events, previousLevel, spawnRetries);
+            if (tickEvent != null && tickEvent.shouldCommit()) {
+                tickEvent.tick = engine.getTicks();
+                tickEvent.snakeLength = engine.getSnakeLength();
+                tickEvent.level = engine.getLevel();
+                tickEvent.events = events;
+                tickEvent.commit();
+            }
+        }
+        long duration = System.nanoTime() - start;
+        tickTime.record(duration);
+        if ((events & GameEngine.EVENT_ATE) != 0) {
+            foodSpawnTickTime.record(duration);
+            foodSpawnRetries.record(spawnRetries);
         }
+        return events;
     }
 
-    private void checkCollision() {
-        Point head = snakeParts.get(0);
+    // Flight recorder events for what happened this tick; cheap no-ops unless recording
+    private void commitEvents(int events, int previousLevel, long spawnRetries) {
+        if ((events & GameEngine.EVENT_ATE) != 0) {
+            FoodSpawnEvent event = new FoodSpawnEvent();
+            if (event.shouldCommit()) {
+                event.tick = engine.getTicks();
+                event.cell = engine.getFood();
+                event.freeCells = engine.getFreeCells().size() + (engine.getFood() >= 0 ? 1 : 0);
+                event.retries = spawnRetries;
+                event.commit();
+            }
+        }
+        if ((events & GameEngine.EVENT_LEVEL_UP) != 0) {
+            LevelChangeEvent event = new LevelChangeEvent();
+            if (event.shouldCommit()) {
+                event.tick = engine.getTicks();
+                event.fromLevel = previousLevel;
+                event.toLevel = engine.getLevel();
+                event.commit();
+            }
+        }
+    }
 
-        // Check if head collides with body
-        for (int i = 1; i < snakeParts.size(); i++) {
-            if (head.x == snakeParts.get(i).x && head.y == snakeParts.get(i).y) {
-                running = false;
-                break;
+    private void markChanges() {
+        if (frameRenderer.isScrolling()) {
+            // The camera view is redrawn whole on every tick
+            if (activeView == null) {
+                repaint();
             }
+            return;
+        }
+        if (engine.isBoardChanged()) {
+            markAllDirty();
+            return;
+        }
+        for (int i = 0; i < engine.getChangedCount(); i++) {
+            markDirty(engine.getChangedCell(i));
+        }
+        if (engine.getFood() >= 0) {
+            markDirty(engine.getFood()); // animation frame advances every tick
         }
+    }
 
-        // Check if head touches borders
-        if (head.x < 0 || head.x >= SCREEN_WIDTH || 
-            head.y < 0 || head.y >= SCREEN_HEIGHT) {
-            running = false;
+    private void markDirty(int cell) {
+        frameRenderer.markDirty(cell);
+        if (activeView == null) {
+            // Sprites reach into the neighbouring cells
+            repaint(cellX(cell) - UNIT_SIZE, cellY(cell) - UNIT_SIZE, 3 * UNIT_SIZE, 3 * UNIT_SIZE);
         }
+    }
 
-        // Check if head collides with barriers
-        GameLevel currentLevel = GameLevel.getLevel(level);
-        if (currentLevel.isCollision(head)) {
-            running = false;
-            if (gameFrame != null) {
-                gameFrame.getSoundManager().playGameOverSound();
-            }
+    private void markAllDirty() {
+        frameRenderer.markAllDirty();
+        if (activeView == null) {
+            repaint();
         }
+    }
 
-        // Stop timer if game is over
-        if (!running) {
-            timer.stop();
+    private void handleEvents(int events, int level, int score) {
+        if ((events & GameEngine.EVENT_DIED) != 0) {
+            // Tick loop already paused itself
+            running = false;
+            markAllDirty();
             gameOvers++;
             // Update attempts display before handling game over
             gameFrame.updateAttemptsLabel(3 - gameOvers);
             gameFrame.handleGameOver(score);
+            return;
+        }
+        if ((events & GameEngine.EVENT_ATE) == 0) {
+            return;
         }
-    }
 
-    private void checkFood() {
-        Point head = snakeParts.get(0);
-        if (head.x == food.x && head.y == food.y) {
-            // Add new part to snake
-            Point tail = snakeParts.get(snakeParts.size() - 1);
-            snakeParts.add(new Point(tail.x, tail.y));
-            
-            // Calculate score increase considering max score
-            int maxScore = LEVEL_MAX_SCORES[level - 1];
-            int scoreIncrease = 10;
-            if (level < MAX_LEVEL && score + scoreIncrease > maxScore) {
-                scoreIncrease = maxScore - score;  // Only add enough to reach max
-            }
-            
-            // Update score if not at max
-            if (scoreIncrease > 0) {
-                score += scoreIncrease;
-                gameFrame.updateScore(score);
-                
-                // Spawn new food only if we're not at max score
-                if (score < maxScore) {
-                    foodRenderer = new FoodRenderer();
-                    spawnFood();
-                }
-            }
-            
-            // Check level progression
-            checkLevelProgression();
-            
-            // Show current progress
-            if (level < MAX_LEVEL) {
-                int pointsToNext = LEVEL_THRESHOLDS[level] - score;
-                gameFrame.showLevelProgress(pointsToNext);
-            }
+        if ((events & GameEngine.EVENT_LEVEL_UP) != 0) {
+            gameOvers = 0; // Reset attempts for new level
+            gameFrame.updateLevel(level);
+            gameFrame.updateScore(score);
+            gameFrame.updateAttemptsLabel(3); // Reset attempts display
+        } else if ((events & GameEngine.EVENT_SCORED) != 0) {
+            gameFrame.updateScore(score);
+        }
+
+        // Show current progress
+        if (level < MAX_LEVEL) {
+            int pointsToNext = GameEngine.getLevelThreshold(level) - score;
+            gameFrame.showLevelProgress(pointsToNext);
         }
     }
 
     public void handleKeyPress(int keyCode) {
         switch (keyCode) {
             case KeyEvent.VK_LEFT:
-                if (running && !paused && direction != Direction.RIGHT) {
-                    direction = Direction.LEFT;
+                if (running && !paused) {
+                    inputs.offer(Direction.LEFT, System.nanoTime());
                 }
                 break;
             case KeyEvent.VK_RIGHT:
-                if (running && !paused && direction != Direction.LEFT) {
-                    direction = Direction.RIGHT;
+                if (running && !paused) {
+                    inputs.offer(Direction.RIGHT, System.nanoTime());
                 }
                 break;
             case KeyEvent.VK_UP:
-                if (running && !paused && direction != Direction.DOWN) {
-                    direction = Direction.UP;
+                if (running && !paused) {
+                    inputs.offer(Direction.UP, System.nanoTime());
                 }
                 break;
             case KeyEvent.VK_DOWN:
-                if (running && !paused && direction != Direction.UP) {
-                    direction = Direction.DOWN;
+                if (running && !paused) {
+                    inputs.offer(Direction.DOWN, System.nanoTime());
                 }
                 break;
+            case KeyEvent.VK_F2:
+                if (isAutopilotAvailable()) {
+                    autopilotOn = !autopilotOn;
+                }
+                break;
+            case KeyEvent.VK_F3:
+                showStats = !showStats;
+                repaint();
+                break;
             case KeyEvent.VK_ESCAPE:
             case KeyEvent.VK_SPACE:
                 if (running) {
@@ -476,10 +650,10 @@ public class GamePanel extends JPanel implements ActionListener {
 
         buttons[1].addActionListener(e -> {
             pauseFrame.dispose();
-            score = 0;
+            setScore(0);
             gameOvers = 0;
-            resetSnakeWithLength(3);
-            gameFrame.updateScore(score);
+            resetSnakeWithLength(GameEngine.DEFAULT_LENGTH);
+            gameFrame.updateScore(0);
             gameFrame.updateAttemptsLabel(3);
             resumeGame();
         });
@@ -538,70 +712,63 @@ public class GamePanel extends JPanel implements ActionListener {
 
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
-        
-        // Enable antialiasing for smoother rendering
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        if (activeView != null) {
+            // The ActiveView covers the panel and draws on its own thread
+            super.paintComponent(g);
+            return;
+        }
 
-        // Draw background based on level
-        BackgroundRenderer.drawBackground(g2d, SCREEN_WIDTH, SCREEN_HEIGHT, level);
-        
-        if (running) {
-            // Draw food
-            foodRenderer.drawFood(g2d, food.x, food.y, UNIT_SIZE);
-
-            // Draw snake
-            for (int i = 0; i < snakeParts.size(); i++) {
-                Point part = snakeParts.get(i);
-                if (i == 0) {
-                    // Head
-                    SnakeRenderer.drawSnakeHead(g2d, part.x, part.y, UNIT_SIZE, direction);
-                } else {
-                    // Body
-                    SnakeRenderer.drawSnakeBody(g2d, part.x, part.y, UNIT_SIZE);
-                }
-            }
+        // Update the retained frame, then copy it out; Swing clips the copy to the repaint area
+        FramePaintEvent event = FramePaintEvent.beginIfEnabled();
+        long start = System.nanoTime();
+        GameSnapshot snapshot = frameRenderer.update(snapshots, running);
+        g.drawImage(frameRenderer.getFrame(), 0, 0, null);
+        recordPaint(System.nanoTime() - start, event, snapshot);
+        framePresented(snapshot);
+        drawOverlay(g);
+    }
 
-                // Draw barriers
-            GameLevel currentLevel = GameLevel.getLevel(level);
-            g2d.setColor(Color.WHITE);
-            for (Point barrier : currentLevel.getBarriers()) {
-                g2d.fillRect(barrier.x, barrier.y, UNIT_SIZE, UNIT_SIZE);
+    // Called by whichever thread draws frames, after a frame showing snapshot is out
+    void framePresented(GameSnapshot snapshot) {
+        // Record input latency the first time a tick's frame is drawn
+        if (snapshot.getTick() != lastPaintedTick) {
+            lastPaintedTick = snapshot.getTick();
+            if (snapshot.getInputTimestamp() != 0) {
+                inputLatency.record(System.nanoTime() - snapshot.getInputTimestamp());
             }
+        }
+    }
 
-            // Draw grid with color based on level (optional with transparency)
-            Color gridColor = new Color(255, 255, 255, 15); // Very subtle white grid
-            g2d.setColor(gridColor);
-            g2d.setStroke(new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{2}, 0));
-            for (int i = 0; i < SCREEN_HEIGHT / UNIT_SIZE; i++) {
-                g2d.drawLine(i * UNIT_SIZE, 0, i * UNIT_SIZE, SCREEN_HEIGHT);
-                g2d.drawLine(0, i * UNIT_SIZE, SCREEN_WIDTH, i * UNIT_SIZE);
-            }
+    // Only the thread that draws frames records paints
+    void recordPaint(long nanos, FramePaintEvent event, GameSnapshot snapshot) {
+        paintTime.record(nanos);
+        if (event != null && event.shouldCommit()) {
+            event.tick = snapshot.getTick();
+            event.pixels = frameRenderer.getLastPixels();
+            event.active = activeView != null;
+            event.commit();
         }
+    }
+
+    boolean isShowingStats() {
+        return showStats;
+    }
 
+    void drawOverlay(Graphics g) {
         // Draw pause screen
         if (paused) {
-            g.setColor(new Color(0, 0, 0, 150));
-            g.fillRect(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
-            g.setColor(Color.BLACK); // Changed to black
-            g.setFont(new Font("Arial", Font.BOLD, 40));
-            FontMetrics metrics = getFontMetrics(g.getFont());
-            String pauseText = "PAUSED";
-            g.drawString(pauseText,
-                (SCREEN_WIDTH - metrics.stringWidth(pauseText)) / 2,
-                SCREEN_HEIGHT / 2);
+            frameRenderer.drawPauseOverlay(g);
+        }
+        if (showStats) {
+            statsOverlay.draw(g, 0, 0);
         }
     }
 
-    @Override
-    public void actionPerformed(ActionEvent e) {
-        if (running && !paused) {
-            move();
-            checkCollision();
-            checkFood();
-        }
-        repaint();
+    private static int cellX(int cell) {
+        return (cell % COLUMNS) * UNIT_SIZE;
+    }
+
+    private static int cellY(int cell) {
+        return (cell / COLUMNS) * UNIT_SIZE;
     }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.snake.game;
+
+/**
+ * Small, fast, deterministic random source (SplitMix64). Every random choice
+ * in a game is drawn from one GameRandom, so a game is fully determined by
+ * its seed and inputs. Unlike java.util.Random it has no atomic state, so it
+ * costs nothing extra when many games run in parallel.
+ */
+public class GameRandom {
+    // Added to the state on every draw (the golden ratio in 64 bits)
+    public static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    public long nextLong() {
+        return mix(state += GAMMA);
+    }
+
+    /**
+     * SplitMix64's output function. Callers that keep many generators'
+     * states in one long[] draw with {@code mix(states[i] += GAMMA)} and get
+     * the same sequence as a GameRandom with that seed.
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns a uniformly distributed int in [0, bound), using Lemire's
+     * multiply-shift with rejection so there is no modulo bias.
+     */
+    public int nextInt(int bound) {
+        long m = (nextLong() >>> 32) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                m = (nextLong() >>> 32) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    /**
+     * Derives a well-mixed seed for the index-th game of a series.
+     */
+    public static long seedFor(long baseSeed, long index) {
+        return new GameRandom(baseSeed ^ (index * 0xD1B54A32D192ED03L)).nextLong();
+    }
+}
@@ -0,0 +1,141 @@
+package com.snake.game;
+
+import com.snake.graphics.Direction;
+
+/**
+ * Copy of the state the view needs to draw one frame. The tick thread fills a
+ * snapshot after each step and hands it to the UI through a SnapshotBuffer,
+ * so painting never reads the engine while it is being mutated.
+ */
+public class GameSnapshot {
+    // The snake as a ring indexed by push count: segment i is at pushes - 1 - i,
+    // so a copy only writes the heads pushed since the last one and the tail
+    // moves by shortening the length
+    private int[] snake = new int[16];
+    private int snakeLength;
+    private long snakePushes;
+    private int snakeResets = -1;
+    private int[] barriers = new int[0];
+    private int barrierCount;
+    private int food;
+    private int foodType;
+    private long foodAge;
+    private Direction direction = Direction.RIGHT;
+    private int level;
+    private int score;
+    private boolean alive;
+    private long tick;
+    private long inputTimestamp;
+    private long publishTime;
+
+    void copyFrom(GameEngine engine, long tick, long inputTimestamp) {
+        int length = engine.getSnakeLength();
+        long pushes = engine.getSnakePushes();
+        int fresh = length;
+        if (snake.length < length) {
+            // Power of two, so the ring wraps with a mask
+            snake = new int[Math.max(Integer.highestOneBit(length - 1) << 1, snake.length * 2)];
+        } else if (snakeResets == engine.getSnakeResets() && pushes - snakePushes < length) {
+            fresh = (int) (pushes - snakePushes);
+        }
+        int mask = snake.length - 1;
+        for (int i = 0; i < fresh; i++) {
+            snake[(int) (pushes - 1 - i) & mask] = engine.getSnakeCell(i);
+        }
+        snakeLength = length;
+        snakePushes = pushes;
+        snakeResets = engine.getSnakeResets();
+
+        int count = engine.getBarrierCount();
+        if (barriers.length < count) {
+            barriers = new int[count];
+        }
+        for (int i = 0; i < count; i++) {
+            barriers[i] = engine.getBarrierCell(i);
+        }
+        barrierCount = count;
+
+        food = engine.getFood();
+        foodType = engine.getFoodType();
+        foodAge = engine.getFoodAge();
+        direction = engine.getDirection();
+        level = engine.getLevel();
+        score = engine.getScore();
+        alive = engine.isAlive();
+        this.tick = tick;
+        this.inputTimestamp = inputTimestamp;
+        this.publishTime = System.nanoTime();
+    }
+
+    public int getSnakeLength() {
+        return snakeLength;
+    }
+
+    public int getSnakeCell(int index) {
+        return snake[(int) (snakePushes - 1 - index) & (snake.length - 1)];
+    }
+
+    public int getBarrierCount() {
+        return barrierCount;
+    }
+
+    public int getBarrierCell(int index) {
+        return barriers[index];
+    }
+
+    /**
+     * The barrier cells, valid up to getBarrierCount(). Don't modify.
+     */
+    public int[] getBarrierCells() {
+        return barriers;
+    }
+
+    public int getFood() {
+        return food;
+    }
+
+    public int getFoodType() {
+        return foodType;
+    }
+
+    /**
+     * Ticks since the food was placed, the phase of its animation.
+     */
+    public long getFoodAge() {
+        return foodAge;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isAlive() {
+        return alive;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * nanoTime of the key press whose turn was applied in this tick, or 0.
+     */
+    public long getInputTimestamp() {
+        return inputTimestamp;
+    }
+
+    /**
+     * nanoTime when the tick thread published this snapshot.
+     */
+    public long getPublishTime() {
+        return publishTime;
+    }
+}
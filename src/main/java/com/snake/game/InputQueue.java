@@ -0,0 +1,82 @@
+package com.snake.game;
+
+import com.snake.graphics.Direction;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer/single-consumer ring buffer of timestamped turns.
+ * The EDT offers key presses and the tick thread polls them, so quick presses
+ * inside one tick are applied on consecutive ticks instead of overwriting
+ * each other. When the queue is full new presses are dropped.
+ */
+public class InputQueue {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final byte[] directions;
+    private final long[] timestamps;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // next slot to read
+    private final AtomicLong tail = new AtomicLong(); // next slot to write
+
+    // Last polled entry, only touched by the consumer
+    private Direction polledDirection;
+    private long polledTimestamp;
+
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.directions = new byte[size];
+        this.timestamps = new long[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Producer side. Returns false if the queue was full.
+     */
+    public boolean offer(Direction direction, long timestampNanos) {
+        long t = tail.get();
+        if (t - head.get() > mask) {
+            return false;
+        }
+        int slot = (int) t & mask;
+        directions[slot] = (byte) direction.ordinal();
+        timestamps[slot] = timestampNanos;
+        tail.lazySet(t + 1); // publishes the slot to the consumer
+        return true;
+    }
+
+    /**
+     * Consumer side. Removes the oldest entry and makes it available through
+     * getPolledDirection() and getPolledTimestamp(). Returns false if empty.
+     */
+    public boolean poll() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return false;
+        }
+        int slot = (int) h & mask;
+        polledDirection = DIRECTIONS[directions[slot]];
+        polledTimestamp = timestamps[slot];
+        head.lazySet(h + 1);
+        return true;
+    }
+
+    public Direction getPolledDirection() {
+        return polledDirection;
+    }
+
+    public long getPolledTimestamp() {
+        return polledTimestamp;
+    }
+
+    /**
+     * Consumer side. Drops every pending entry.
+     */
+    public void clear() {
+        head.lazySet(tail.get());
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+}
@@ -0,0 +1,118 @@
+package com.snake.game;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of non-negative ints with linear probing. Used
+ * where a per-cell array would be too big, e.g. the occupied cells of a
+ * large board. Removal shifts the following entries back instead of leaving
+ * tombstones, so lookups stay short however many adds and removes there are.
+ */
+public class IntHashSet {
+    private static final int EMPTY = -1;
+
+    private int[] slots;
+    private int mask;
+    private int size;
+
+    public IntHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(slots, EMPTY);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int value) {
+        for (int i = slot(value); ; i = (i + 1) & mask) {
+            int current = slots[i];
+            if (current == value) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Adds value; returns false if it was already present.
+     */
+    public boolean add(int value) {
+        int i = slot(value);
+        while (slots[i] != EMPTY) {
+            if (slots[i] == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = value;
+        // Keep the load factor at or below one half
+        if (++size * 2 > slots.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Removes value; returns false if it was not present.
+     */
+    public boolean remove(int value) {
+        int i = slot(value);
+        while (slots[i] != value) {
+            if (slots[i] == EMPTY) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        // Move later entries of the probe run back into the hole
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            int current = slots[j];
+            if (current == EMPTY) {
+                break;
+            }
+            int home = slot(current);
+            boolean between = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!between) {
+                slots[i] = current;
+                i = j;
+            }
+        }
+        slots[i] = EMPTY;
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        if (size != 0) {
+            Arrays.fill(slots, EMPTY);
+            size = 0;
+        }
+    }
+
+    private int slot(int value) {
+        int hash = value * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void grow() {
+        int[] old = slots;
+        slots = new int[old.length * 2];
+        mask = slots.length - 1;
+        Arrays.fill(slots, EMPTY);
+        for (int value : old) {
+            if (value != EMPTY) {
+                int i = slot(value);
+                while (slots[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.snake.game;
+
+import java.util.Arrays;
+
+/**
+ * One byte per board cell saying what occupies it. The snake, barriers and
+ * food update it incrementally, so every collision query is a single array
+ * lookup regardless of snake length or barrier count.
+ *
+ * The bytes live in pages of PAGE_SIZE consecutive cells that are only
+ * allocated when something is first written to them, so a 10,000 x 10,000
+ * board costs memory for the area the snake has visited and the cells
+ * holding barriers and food, not for the whole board.
+ */
+public class OccupancyGrid {
+    public static final byte EMPTY = 0;
+    public static final byte SNAKE = 1;
+    public static final byte BARRIER = 2;
+    public static final byte FOOD = 3;
+
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final int columns;
+    private final int rows;
+    private final int size;
+    private final byte[][] pages;
+    private int allocatedPages;
+
+    public OccupancyGrid(int columns, int rows) {
+        this.columns = columns;
+        this.rows = rows;
+        this.size = columns * rows;
+        this.pages = new byte[(size + PAGE_SIZE - 1) >>> PAGE_BITS][];
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte get(int cell) {
+        byte[] page = pages[cell >>> PAGE_BITS];
+        return page == null ? EMPTY : page[cell & PAGE_MASK];
+    }
+
+    public boolean isEmpty(int cell) {
+        return get(cell) == EMPTY;
+    }
+
+    public void set(int cell, byte value) {
+        byte[] page = pages[cell >>> PAGE_BITS];
+        if (page == null) {
+            if (value == EMPTY) {
+                return;
+            }
+            page = new byte[PAGE_SIZE];
+            pages[cell >>> PAGE_BITS] = page;
+            allocatedPages++;
+        }
+        page[cell & PAGE_MASK] = value;
+    }
+
+    public void clear(int cell) {
+        set(cell, EMPTY);
+    }
+
+    /**
+     * Empties the board. Small boards keep their pages; large ones drop them
+     * so a reset gives the memory back.
+     */
+    public void clear() {
+        if (pages.length == 1) {
+            if (pages[0] != null) {
+                Arrays.fill(pages[0], 0, size, EMPTY);
+            }
+            return;
+        }
+        Arrays.fill(pages, null);
+        allocatedPages = 0;
+    }
+
+    /**
+     * Bytes of cell storage currently allocated.
+     */
+    public long getAllocatedBytes() {
+        return (long) allocatedPages * PAGE_SIZE;
+    }
+}
@@ -0,0 +1,135 @@
+package com.snake.game;
+
+import com.snake.graphics.Direction;
+
+/**
+ * Plays a replay written by ReplayRecorder back through a fresh GameEngine.
+ * Because the engine is deterministic, playback reproduces the recorded game
+ * bit for bit; {@link #play()} checks this against the recorded state hash.
+ */
+public class ReplayPlayer {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final byte[] bytes;
+    private int position;
+    private final GameEngine engine;
+
+    private long nextEventTick;
+    private int nextEventCode = -1;
+    private boolean ended;
+
+    public ReplayPlayer(byte[] bytes) {
+        this.bytes = bytes;
+        if (readInt() != ReplayRecorder.MAGIC) {
+            throw new IllegalArgumentException("Not a snake replay");
+        }
+        int version = (int) readVarint();
+        if (version != ReplayRecorder.VERSION) {
+            throw new IllegalArgumentException("Unsupported replay version " + version);
+        }
+        long seed = readLong();
+        int columns = (int) readVarint();
+        int rows = (int) readVarint();
+        int level = (int) readVarint();
+        int score = (int) readVarint();
+        this.engine = new GameEngine(columns, rows, level, score, seed);
+        readEventHeader(0);
+    }
+
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Applies the events due before the next tick and steps the engine once.
+     * Returns the step's EVENT_* flags, or -1 once the replay has ended.
+     * Throws if the game is over but events remain, since their tick can
+     * never come; the replay is truncated or corrupt.
+     */
+    public int step() {
+        while (nextEventCode >= 0 && nextEventTick == engine.getTicks()) {
+            if (nextEventCode == ReplayRecorder.CODE_END) {
+                ended = true;
+                return -1;
+            }
+            applyEvent(nextEventCode);
+            readEventHeader(nextEventTick);
+        }
+        if (!engine.isAlive()) {
+            if (nextEventCode >= 0) {
+                throw new IllegalStateException("Replay has an event at tick " + nextEventTick
+                    + " but the game ended at tick " + engine.getTicks());
+            }
+            return -1; // unfinished replay, nothing more can happen
+        }
+        return engine.step();
+    }
+
+    /**
+     * Plays the replay to the end and throws if the final state differs from
+     * the recorded one.
+     */
+    public GameEngine play() {
+        while (step() >= 0) {
+            // keep stepping
+        }
+        if (!ended) {
+            throw new IllegalStateException("Replay has no end marker");
+        }
+        long expected = readLong();
+        if (engine.stateHash() != expected) {
+            throw new IllegalStateException("Replay diverged at tick " + engine.getTicks());
+        }
+        return engine;
+    }
+
+    private void applyEvent(int code) {
+        switch (code) {
+            case ReplayRecorder.CODE_RESET -> engine.reset((int) readVarint());
+            case ReplayRecorder.CODE_SCORE -> engine.setScore((int) readVarint());
+            case ReplayRecorder.CODE_LEVEL -> engine.setLevel((int) readVarint());
+            default -> engine.turn(DIRECTIONS[code]);
+        }
+    }
+
+    private void readEventHeader(long previousTick) {
+        if (position >= bytes.length) {
+            nextEventCode = -1;
+            return;
+        }
+        long packed = readVarint();
+        nextEventTick = previousTick + (packed >>> ReplayRecorder.CODE_BITS);
+        nextEventCode = (int) (packed & ((1 << ReplayRecorder.CODE_BITS) - 1));
+    }
+
+    private long readVarint() {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = nextByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private int readInt() {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (nextByte() & 0xFF);
+        }
+        return value;
+    }
+
+    private long readLong() {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    private byte nextByte() {
+        if (position >= bytes.length) {
+            throw new IllegalStateException("Replay is truncated at byte " + position);
+        }
+        return bytes[position++];
+    }
+}
@@ -0,0 +1,120 @@
+package com.snake.game;
+
+import com.snake.graphics.Direction;
+
+import java.util.Arrays;
+
+/**
+ * Records a game as a compact binary replay: a header with the seed, board
+ * size and starting level/score, followed by one varint per event. An event
+ * packs the ticks since the previous event with a 3-bit code, so a typical
+ * turn costs a single byte.
+ *
+ * Codes 0-3 are turns (Direction ordinal), and the others are listed below.
+ * Events at the same tick are replayed in the order they were recorded,
+ * before that tick's step.
+ */
+public class ReplayRecorder {
+    static final int MAGIC = 0x534E4B52; // "SNKR"
+    static final int VERSION = 1;
+
+    static final int CODE_END = 4;    // followed by the final state hash
+    static final int CODE_RESET = 5;  // followed by the snake length
+    static final int CODE_SCORE = 6;  // followed by the new score
+    static final int CODE_LEVEL = 7;  // followed by the new level
+    static final int CODE_BITS = 3;
+
+    private byte[] bytes = new byte[64];
+    private int size;
+    private long lastTick;
+    private boolean finished;
+
+    public ReplayRecorder(GameEngine engine) {
+        writeInt(MAGIC);
+        writeVarint(VERSION);
+        writeLong(engine.getSeed());
+        writeVarint(engine.getColumns());
+        writeVarint(engine.getRows());
+        writeVarint(engine.getInitialLevel());
+        writeVarint(engine.getInitialScore());
+        engine.setRecorder(this);
+    }
+
+    void turn(long tick, Direction direction) {
+        event(tick, direction.ordinal());
+    }
+
+    void reset(long tick, int length) {
+        event(tick, CODE_RESET);
+        writeVarint(length);
+    }
+
+    void score(long tick, int score) {
+        event(tick, CODE_SCORE);
+        writeVarint(score);
+    }
+
+    void level(long tick, int level) {
+        event(tick, CODE_LEVEL);
+        writeVarint(level);
+    }
+
+    /**
+     * Ends the replay with the engine's current tick and state hash, which
+     * playback uses to verify that it reproduced the game exactly.
+     */
+    public void finish(GameEngine engine) {
+        if (finished) {
+            return;
+        }
+        event(engine.getTicks(), CODE_END);
+        writeLong(engine.stateHash());
+        finished = true;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    private void event(long tick, int code) {
+        if (finished) {
+            throw new IllegalStateException("Replay already finished");
+        }
+        writeVarint(((tick - lastTick) << CODE_BITS) | code);
+        lastTick = tick;
+    }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    private void writeInt(int value) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            writeByte(value >>> shift);
+        }
+    }
+
+    private void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    private void writeByte(int value) {
+        if (size == bytes.length) {
+            bytes = Arrays.copyOf(bytes, size * 2);
+        }
+        bytes[size++] = (byte) value;
+    }
+}
@@ -0,0 +1,106 @@
+package com.snake.game;
+
+/**
+ * Snake segments stored as packed cell indices in a primitive ring buffer.
+ * Moving is "push head, pop tail", so a tick costs the same for any length.
+ * The buffer is sized for the whole board up to INITIAL_CAPACITY_LIMIT
+ * cells, so growing on a normal board never allocates; on larger boards it
+ * starts at that size and doubles when the snake fills it.
+ */
+public class SnakeBody {
+    private static final int INITIAL_CAPACITY_LIMIT = 1 << 16;
+
+    private int[] cells;
+    private int mask;
+    private int head;
+    private int length;
+    private long pushes;
+    private int clears;
+
+    public SnakeBody(int maxLength) {
+        // Round up to a power of two so wrapping is a single mask
+        int capacity = Integer.highestOneBit(Math.max(1, Math.min(maxLength, INITIAL_CAPACITY_LIMIT) - 1)) << 1;
+        this.cells = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public void clear() {
+        head = 0;
+        length = 0;
+        clears++;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int capacity() {
+        return cells.length;
+    }
+
+    /**
+     * Segments pushed at the head since the body was created. A copy that
+     * remembers this count only needs the segments pushed since, as the
+     * rest of the body is unchanged apart from segments popped off the tail.
+     */
+    public long getPushes() {
+        return pushes;
+    }
+
+    /**
+     * How many times clear() was called; a copy made before the last clear
+     * has to be taken again in full.
+     */
+    public int getClears() {
+        return clears;
+    }
+
+    public int getHead() {
+        return cells[head];
+    }
+
+    public int getTail() {
+        return cells[(head + length - 1) & mask];
+    }
+
+    /**
+     * Returns the cell of segment {@code index}, where 0 is the head.
+     */
+    public int get(int index) {
+        return cells[(head + index) & mask];
+    }
+
+    public void pushHead(int cell) {
+        if (length == cells.length) {
+            grow();
+        }
+        head = (head - 1) & mask;
+        cells[head] = cell;
+        length++;
+        pushes++;
+    }
+
+    public void addTail(int cell) {
+        if (length == cells.length) {
+            grow();
+        }
+        cells[(head + length) & mask] = cell;
+        length++;
+    }
+
+    public int popTail() {
+        length--;
+        return cells[(head + length) & mask];
+    }
+
+    // Unwraps the segments into a buffer twice the size, head first
+    private void grow() {
+        int[] grown = new int[cells.length * 2];
+        for (int i = 0; i < length; i++) {
+            grown[i] = cells[(head + i) & mask];
+        }
+        cells = grown;
+        mask = grown.length - 1;
+        head = 0;
+    }
+}
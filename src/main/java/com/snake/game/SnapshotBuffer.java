@@ -0,0 +1,49 @@
+package com.snake.game;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free triple buffer of GameSnapshots between the tick thread (writer)
+ * and the UI (reader). The writer always has a private back buffer to fill,
+ * the reader always has a stable front buffer to draw, and the middle buffer
+ * holds the latest published frame. Neither side ever waits for the other.
+ */
+public class SnapshotBuffer {
+    // State packs the middle buffer index (bits 0-1) and a "fresh" flag (bit 2)
+    private static final int FRESH = 4;
+    private static final int INDEX_MASK = 3;
+
+    private final GameSnapshot[] buffers = {new GameSnapshot(), new GameSnapshot(), new GameSnapshot()};
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+    private long tick;
+
+    /**
+     * Copies the engine into the back buffer and publishes it. Only one thread
+     * may publish at a time; callers hold the engine lock.
+     */
+    public void publish(GameEngine engine) {
+        publish(engine, 0);
+    }
+
+    /**
+     * Same as publish(engine), also recording the timestamp of the input
+     * applied in this tick.
+     */
+    public void publish(GameEngine engine, long inputTimestamp) {
+        buffers[back].copyFrom(engine, ++tick, inputTimestamp);
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Returns the most recently published snapshot. Must be called from a
+     * single reader thread.
+     */
+    public GameSnapshot latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return buffers[front];
+    }
+}
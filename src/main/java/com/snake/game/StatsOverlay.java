@@ -0,0 +1,55 @@
+package com.snake.game;
+
+import com.snake.metrics.Histogram;
+
+import java.awt.*;
+
+/**
+ * Live p50/p99 readout of a few histograms, toggled with F3. The text is
+ * re-formatted at most every REFRESH_NANOS so the numbers stay readable and
+ * the overlay doesn't add string garbage on every frame.
+ */
+public class StatsOverlay {
+    private static final long REFRESH_NANOS = 500_000_000L;
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+    private static final Color TEXT = new Color(0, 255, 128);
+    private static final int LINE_HEIGHT = 15;
+    private static final int PADDING = 6;
+    public static final int WIDTH = 330;
+
+    private final Histogram[] histograms;
+    private final String[] lines;
+    private long lastRefresh;
+
+    public StatsOverlay(Histogram... histograms) {
+        this.histograms = histograms;
+        this.lines = new String[histograms.length];
+        this.lastRefresh = System.nanoTime() - REFRESH_NANOS;
+    }
+
+    public int getHeight() {
+        return histograms.length * LINE_HEIGHT + 2 * PADDING;
+    }
+
+    public void draw(Graphics g, int x, int y) {
+        long now = System.nanoTime();
+        if (now - lastRefresh >= REFRESH_NANOS) {
+            lastRefresh = now;
+            for (int i = 0; i < histograms.length; i++) {
+                Histogram histogram = histograms[i];
+                double scale = histogram.getUnitScale();
+                lines[i] = String.format("%-16s p50 %8.1f p99 %8.1f %s", histogram.getName(),
+                    histogram.getP50() / scale, histogram.getP99() / scale, histogram.getUnit());
+            }
+        }
+
+        g.setColor(BACKGROUND);
+        g.fillRect(x, y, WIDTH, getHeight());
+        g.setColor(TEXT);
+        g.setFont(FONT);
+        for (int i = 0; i < lines.length; i++) {
+            g.drawString(lines[i], x + PADDING, y + PADDING + (i + 1) * LINE_HEIGHT - 3);
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package com.snake.game;
+
+import com.snake.graphics.Direction;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * N independent snake games stepped together, for training bots. The snake
+ * state is kept structure-of-arrays: one int[] holds every game's body
+ * ring, and heads, lengths, growth, food, levels and scores are one array
+ * entry per game. Each game has its own OccupancyGrid, FreeCellSet and
+ * GameRandom, so a step touches a few entries of each and nothing is
+ * allocated.
+ *
+ * The rules are GameEngine's, through its static helpers: collisions and
+ * growth use isDeadly() and isGrowing(), scoring and levels
+ * getScoreIncrease() and isLevelComplete(), food goes down through
+ * placeFood() and barriers through Barriers.generate(). Game i therefore
+ * plays exactly like {@code new GameEngine(columns, rows, startLevel, 0,
+ * GameRandom.seedFor(seed, i))} given the same turns. A game that dies, or
+ * that runs for maxEpisodeSteps (0 for no limit), is reset at its start
+ * level and score 0 inside the same step (gym's autoreset), so the
+ * observation written for it is its new first one.
+ *
+ * Each step writes OBSERVATION_SIZE floats per game into one reused buffer:
+ * whether moving in each Direction is deadly or a reversal, the current
+ * direction one-hot, the food offset as a fraction of the board, the length
+ * as a fraction of the board and the level as a fraction of MAX_LEVEL.
+ * Rewards are +1 for food and -1 for dying.
+ *
+ * With a ForkJoinPool the games are split into fixed chunks whose tasks are
+ * created once and reinitialized each step. The calling thread steps the
+ * first chunk itself and then parks until the pool's chunks have counted
+ * down, so a pool shared with other work only delays step() by this env's
+ * own chunks. step() must not be called from a thread of that pool.
+ */
+public class VectorEnv {
+    public static final int OBSERVATION_SIZE = 12;
+    // Set in getEvents() when a game hit maxEpisodeSteps and was reset
+    public static final int EVENT_TRUNCATED = 16;
+    public static final int NO_ACTION = -1;
+
+    private static final Direction[] DIRECTION_VALUES = Direction.values();
+    private static final int DIRECTIONS = DIRECTION_VALUES.length;
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0};
+    private static final int[] OPPOSITE = new int[DIRECTIONS];
+    // Games per chunk at most, so a chunk's state stays cache-sized
+    private static final int MAX_CHUNK_GAMES = 256;
+
+    static {
+        for (Direction direction : DIRECTION_VALUES) {
+            OPPOSITE[direction.ordinal()] = GameEngine.opposite(direction).ordinal();
+        }
+    }
+
+    private final int count;
+    private final int columns;
+    private final int rows;
+    private final int cells;
+    private final int ringMask;
+    private final int startLevel;
+    private final int maxEpisodeSteps;
+
+    private final OccupancyGrid[] grids;
+    private final FreeCellSet[] frees;
+    private final GameRandom[] randoms;
+    // Body of game i is ring [i * ringSize, (i + 1) * ringSize), head at heads[i]
+    private final int[] body;
+    private final int[] heads;
+    private final int[] lengths;
+    private final int[] growth;
+    private final int[] foods;
+    private final byte[] foodTypes;
+    private final byte[] directions;
+    private final byte[] levels;
+    private final int[] scores;
+    private final int[] steps;
+
+    private final float[] observations;
+    private final float[] rewards;
+    private final int[] events;
+    private int[] actions;
+
+    private final ForkJoinPool pool;
+    private final Chunk[] chunks;
+    // Chunks of the current step still running in the pool; the last one unparks stepThread
+    private final AtomicInteger pendingChunks = new AtomicInteger();
+    private volatile Thread stepThread;
+    private long totalSteps;
+
+    public VectorEnv(int count, int columns, int rows, int startLevel, int maxEpisodeSteps, long seed,
+                     ForkJoinPool pool) {
+        if (count < 1 || columns < 3 || rows < 3 || (long) count * columns * rows > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Can't fit " + count + " games of " + columns + "x" + rows);
+        }
+        this.count = count;
+        this.columns = columns;
+        this.rows = rows;
+        this.cells = columns * rows;
+        int ringSize = Integer.highestOneBit(Math.max(1, cells - 1)) << 1;
+        if ((long) count * ringSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Can't fit " + count + " games of " + columns + "x" + rows);
+        }
+        this.ringMask = ringSize - 1;
+        this.startLevel = Math.max(1, Math.min(GameEngine.MAX_LEVEL, startLevel));
+        this.maxEpisodeSteps = maxEpisodeSteps;
+
+        this.grids = new OccupancyGrid[count];
+        this.frees = new FreeCellSet[count];
+        this.randoms = new GameRandom[count];
+        this.body = new int[count * ringSize];
+        this.heads = new int[count];
+        this.lengths = new int[count];
+        this.growth = new int[count];
+        this.foods = new int[count];
+        this.foodTypes = new byte[count];
+        this.directions = new byte[count];
+        this.levels = new byte[count];
+        this.scores = new int[count];
+        this.steps = new int[count];
+        this.observations = new float[count * OBSERVATION_SIZE];
+        this.rewards = new float[count];
+        this.events = new int[count];
+
+        this.pool = pool;
+        int chunkCount = 1;
+        if (pool != null) {
+            chunkCount = Math.max(pool.getParallelism() * 4, (count + MAX_CHUNK_GAMES - 1) / MAX_CHUNK_GAMES);
+            chunkCount = Math.min(chunkCount, count);
+        }
+        this.chunks = new Chunk[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            chunks[i] = new Chunk((int) ((long) count * i / chunkCount), (int) ((long) count * (i + 1) / chunkCount));
+        }
+
+        for (int env = 0; env < count; env++) {
+            grids[env] = new OccupancyGrid(columns, rows);
+            frees[env] = new FreeCellSet(cells);
+            randoms[env] = new GameRandom(GameRandom.seedFor(seed, env));
+            levels[env] = (byte) this.startLevel;
+            resetGame(env, chunks[0].barriers);
+            observe(env);
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Game steps taken so far, summed over all games.
+     */
+    public long getTotalSteps() {
+        return totalSteps;
+    }
+
+    /**
+     * The observation buffer: game i's features are at
+     * [i * OBSERVATION_SIZE, (i + 1) * OBSERVATION_SIZE). Overwritten by
+     * every step().
+     */
+    public float[] getObservations() {
+        return observations;
+    }
+
+    /**
+     * Reward of each game for the last step().
+     */
+    public float[] getRewards() {
+        return rewards;
+    }
+
+    /**
+     * GameEngine.EVENT_* flags plus EVENT_TRUNCATED of each game for the last
+     * step(). EVENT_DIED or EVENT_TRUNCATED means the game was reset.
+     */
+    public int[] getEvents() {
+        return events;
+    }
+
+    public int getHead(int env) {
+        return body[env * (ringMask + 1) + heads[env]];
+    }
+
+    public int getLength(int env) {
+        return lengths[env];
+    }
+
+    /**
+     * Cell of segment index of a game's snake, where 0 is the head.
+     */
+    public int getSnakeCell(int env, int index) {
+        return body[env * (ringMask + 1) + ((heads[env] + index) & ringMask)];
+    }
+
+    public int getFood(int env) {
+        return foods[env];
+    }
+
+    public int getFoodType(int env) {
+        return foodTypes[env];
+    }
+
+    public Direction getDirection(int env) {
+        return DIRECTION_VALUES[directions[env]];
+    }
+
+    public int getLevel(int env) {
+        return levels[env];
+    }
+
+    public int getScore(int env) {
+        return scores[env];
+    }
+
+    /**
+     * OccupancyGrid content of a cell of a game's board.
+     */
+    public byte getCell(int env, int cell) {
+        return grids[env].get(cell);
+    }
+
+    /**
+     * Advances every game one tick. actions[i] is a Direction ordinal for
+     * game i, or NO_ACTION to keep going straight; reversing is ignored, as
+     * in GameEngine.turn().
+     */
+    public void step(int[] actions) {
+        if (actions.length < count) {
+            throw new IllegalArgumentException("Need " + count + " actions, got " + actions.length);
+        }
+        this.actions = actions;
+        if (pool == null || chunks.length == 1) {
+            stepRange(0, count, chunks[0].barriers);
+        } else {
+            stepThread = Thread.currentThread();
+            pendingChunks.set(chunks.length - 1);
+            for (int i = 1; i < chunks.length; i++) {
+                chunks[i].reinitialize();
+                pool.execute(chunks[i]);
+            }
+            stepRange(chunks[0].from, chunks[0].to, chunks[0].barriers);
+            // Waiting in join() would allocate a wait node each step, so park on the count instead
+            while (pendingChunks.get() != 0) {
+                LockSupport.park(this);
+            }
+            // A chunk is marked done just after it counts down, and must be before it is reinitialized
+            for (int i = 1; i < chunks.length; i++) {
+                while (!chunks[i].isDone()) {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+        totalSteps += count;
+    }
+
+    /**
+     * Resets every game at the start level.
+     */
+    public void reset() {
+        for (int env = 0; env < count; env++) {
+            levels[env] = (byte) startLevel;
+            steps[env] = 0;
+            resetGame(env, chunks[0].barriers);
+            observe(env);
+            rewards[env] = 0;
+            events[env] = GameEngine.EVENT_NONE;
+        }
+    }
+
+    // Steps games from..to-1; barriers is the caller's scratch space for Barriers.generate()
+    private void stepRange(int from, int to, int[] barriers) {
+        for (int env = from; env < to; env++) {
+            int event = stepGame(env, actions[env], barriers);
+            if ((event & (GameEngine.EVENT_DIED | EVENT_TRUNCATED)) != 0) {
+                levels[env] = (byte) startLevel;
+                steps[env] = 0;
+                resetGame(env, barriers);
+            }
+            events[env] = event;
+            rewards[env] = (event & GameEngine.EVENT_DIED) != 0 ? -1f
+                : (event & GameEngine.EVENT_ATE) != 0 ? 1f : 0f;
+            observe(env);
+        }
+    }
+
+    // Same as GameEngine.step()
+    private int stepGame(int env, int action, int[] barriers) {
+        int direction = directions[env];
+        if (action >= 0 && action < DIRECTIONS && action != OPPOSITE[direction]) {
+            direction = action;
+            directions[env] = (byte) direction;
+        }
+        OccupancyGrid grid = grids[env];
+        int ringBase = env * (ringMask + 1);
+        int head = body[ringBase + heads[env]];
+        int target = neighbour(head, direction);
+        if (target < 0 || isDeadly(env, ringBase, target)) {
+            return GameEngine.EVENT_DIED;
+        }
+        boolean ate = grid.get(target) == OccupancyGrid.FOOD;
+
+        // Push the new head and pop the tail, keeping the tail while growing
+        if (GameEngine.isGrowing(growth[env], lengths[env], cells)) {
+            growth[env]--;
+            lengths[env]++;
+        } else {
+            int tail = tail(env, ringBase);
+            grid.clear(tail);
+            frees[env].add(tail);
+        }
+        int index = (heads[env] - 1) & ringMask;
+        heads[env] = index;
+        body[ringBase + index] = target;
+        grid.set(target, OccupancyGrid.SNAKE);
+        frees[env].remove(target);
+
+        int event = ate ? eat(env, barriers) : GameEngine.EVENT_NONE;
+        if (++steps[env] >= maxEpisodeSteps && maxEpisodeSteps > 0) {
+            event |= EVENT_TRUNCATED;
+        }
+        return event;
+    }
+
+    // Same as GameEngine.eatFood()
+    private int eat(int env, int[] barriers) {
+        growth[env]++;
+        int event = GameEngine.EVENT_ATE;
+        int level = levels[env];
+        int increase = GameEngine.getScoreIncrease(level, scores[env]);
+        if (increase > 0) {
+            scores[env] += increase;
+            event |= GameEngine.EVENT_SCORED;
+            if (scores[env] < GameEngine.getLevelMaxScore(level)) {
+                spawnFood(env);
+            }
+        }
+        if (GameEngine.isLevelComplete(level, scores[env])) {
+            levels[env] = (byte) (level + 1);
+            resetGame(env, barriers);
+            event |= GameEngine.EVENT_LEVEL_UP;
+        }
+        return event;
+    }
+
+    private boolean isDeadly(int env, int ringBase, int target) {
+        return GameEngine.isDeadly(grids[env].get(target), target == tail(env, ringBase),
+            GameEngine.isGrowing(growth[env], lengths[env], cells));
+    }
+
+    private int tail(int env, int ringBase) {
+        return body[ringBase + ((heads[env] + lengths[env] - 1) & ringMask)];
+    }
+
+    // The cell next to cell in a direction, or -1 off the board
+    private int neighbour(int cell, int direction) {
+        int x = cell % columns + DX[direction];
+        int y = cell / columns + DY[direction];
+        if (x < 0 || x >= columns || y < 0 || y >= rows) {
+            return -1;
+        }
+        return y * columns + x;
+    }
+
+    // Same as GameEngine.resetBoard(DEFAULT_LENGTH) at the game's current level, with the score back at 0
+    private void resetGame(int env, int[] barriers) {
+        OccupancyGrid grid = grids[env];
+        FreeCellSet free = frees[env];
+        int ringBase = env * (ringMask + 1);
+        grid.clear();
+        free.fill();
+        int headX = columns / 2;
+        int headY = rows / 2;
+        int placed = Math.min(GameEngine.DEFAULT_LENGTH, headX + 1);
+        for (int i = 0; i < placed; i++) {
+            int cell = headY * columns + (headX - i);
+            body[ringBase + i] = cell;
+            grid.set(cell, OccupancyGrid.SNAKE);
+            free.remove(cell);
+        }
+        heads[env] = 0;
+        lengths[env] = placed;
+        growth[env] = GameEngine.DEFAULT_LENGTH - placed;
+        directions[env] = (byte) Direction.RIGHT.ordinal();
+        scores[env] = 0;
+
+        Barriers.generate(levels[env], grid, free, headY * columns + headX, randoms[env], barriers);
+        spawnFood(env);
+    }
+
+    private void spawnFood(int env) {
+        long placed = GameEngine.placeFood(grids[env], frees[env], randoms[env]);
+        foods[env] = (int) placed;
+        foodTypes[env] = (byte) (placed >>> 32);
+    }
+
+    private void observe(int env) {
+        int base = env * OBSERVATION_SIZE;
+        int ringBase = env * (ringMask + 1);
+        int head = body[ringBase + heads[env]];
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            int target = neighbour(head, direction);
+            boolean deadly = target < 0 || direction == OPPOSITE[directions[env]]
+                || isDeadly(env, ringBase, target);
+            observations[base + direction] = deadly ? 1f : 0f;
+        }
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            observations[base + DIRECTIONS + direction] = direction == directions[env] ? 1f : 0f;
+        }
+        int food = foods[env];
+        observations[base + 8] = food < 0 ? 0f : (float) (food % columns - head % columns) / columns;
+        observations[base + 9] = food < 0 ? 0f : (float) (food / columns - head / columns) / rows;
+        observations[base + 10] = (float) lengths[env] / cells;
+        observations[base + 11] = (float) levels[env] / GameEngine.MAX_LEVEL;
+    }
+
+    // Steps a contiguous range of games; created once and reused every step
+    private final class Chunk extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int[] barriers = new int[Barriers.getMaxCount()];
+
+        Chunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            stepRange(from, to, barriers);
+            if (pendingChunks.decrementAndGet() == 0) {
+                LockSupport.unpark(stepThread);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.snake.graphics;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * BackgroundLayer for boards too big to keep as one image. The board is cut
+ * into CHUNK_CELLS x CHUNK_CELLS chunks, each pre-rendered on first sight
+ * with the gradient, pattern, barriers and grid, and kept in a small
+ * least-recently-used cache. Drawing a view blits the few chunks it
+ * overlaps, so the cost depends on the view size, not the board size.
+ */
+public class BackgroundChunks {
+    public static final int CHUNK_CELLS = 16;
+    // Enough for every chunk a view can overlap plus the ring it scrolls into next
+    private static final int SLOTS = 25;
+
+    private final int unitSize;
+    private final int chunkSize;
+    private final BufferedImage[] images = new BufferedImage[SLOTS];
+    private final long[] keys = new long[SLOTS];
+    private final long[] lastUsed = new long[SLOTS];
+    private long clock;
+
+    private int columns;
+    private int rows;
+    private int level;
+    private boolean board;
+    private int[] barriers = new int[0];
+    private int barrierCount;
+    private int rebuilds;
+
+    public BackgroundChunks(int unitSize) {
+        this.unitSize = unitSize;
+        this.chunkSize = CHUNK_CELLS * unitSize;
+        Arrays.fill(keys, -1);
+    }
+
+    /**
+     * Draws the part of a columns x rows board that lies in the view, a
+     * viewWidth x viewHeight pixel area whose top-left is at (viewX, viewY) in
+     * board pixels, at (0, 0). Barriers (as packed cells) and the grid are
+     * only drawn when board is true.
+     */
+    public void draw(Graphics2D g2d, int columns, int rows, int level, boolean board,
+                     int[] barrierCells, int barrierCount, int viewX, int viewY, int viewWidth, int viewHeight) {
+        validate(columns, rows, level, board, barrierCells, barrierCount);
+        int chunkColumns = (columns + CHUNK_CELLS - 1) / CHUNK_CELLS;
+        for (int chunkY = viewY / chunkSize; chunkY * chunkSize < viewY + viewHeight; chunkY++) {
+            for (int chunkX = viewX / chunkSize; chunkX * chunkSize < viewX + viewWidth; chunkX++) {
+                BufferedImage chunk = getChunk((long) chunkY * chunkColumns + chunkX, chunkX, chunkY);
+                g2d.drawImage(chunk, chunkX * chunkSize - viewX, chunkY * chunkSize - viewY, null);
+            }
+        }
+    }
+
+    /**
+     * How many chunks have been painted, for checking the cache.
+     */
+    public int getRebuilds() {
+        return rebuilds;
+    }
+
+    private void validate(int columns, int rows, int level, boolean board, int[] barrierCells, int barrierCount) {
+        if (this.columns == columns && this.rows == rows && this.level == level && this.board == board
+                && (!board || sameBarriers(barrierCells, barrierCount))) {
+            return;
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.level = level;
+        this.board = board;
+        if (board) {
+            if (barriers.length < barrierCount) {
+                barriers = new int[barrierCount];
+            }
+            System.arraycopy(barrierCells, 0, barriers, 0, barrierCount);
+            this.barrierCount = barrierCount;
+        }
+        Arrays.fill(keys, -1);
+    }
+
+    private boolean sameBarriers(int[] barrierCells, int count) {
+        return count == barrierCount && Arrays.equals(barriers, 0, count, barrierCells, 0, count);
+    }
+
+    private BufferedImage getChunk(long key, int chunkX, int chunkY) {
+        clock++;
+        int victim = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            if (keys[i] == key) {
+                lastUsed[i] = clock;
+                return images[i];
+            }
+            if (lastUsed[i] < lastUsed[victim]) {
+                victim = i;
+            }
+        }
+        if (images[victim] == null) {
+            images[victim] = CompatibleImages.create(chunkSize, chunkSize, Transparency.OPAQUE);
+        }
+        paint(images[victim], chunkX, chunkY);
+        keys[victim] = key;
+        lastUsed[victim] = clock;
+        rebuilds++;
+        return images[victim];
+    }
+
+    private void paint(BufferedImage image, int chunkX, int chunkY) {
+        int left = chunkX * chunkSize;
+        int top = chunkY * chunkSize;
+        int width = columns * unitSize;
+        int height = rows * unitSize;
+
+        // Draw in board coordinates so the gradient and pattern line up across chunks
+        Graphics2D g2d = CompatibleImages.createGraphics(image);
+        g2d.translate(-left, -top);
+        BackgroundRenderer.drawBackground(g2d, width, height, level, left, top, chunkSize, chunkSize);
+
+        if (board) {
+            int firstColumn = chunkX * CHUNK_CELLS;
+            int firstRow = chunkY * CHUNK_CELLS;
+            g2d.setColor(BackgroundLayer.BARRIER_COLOR);
+            for (int i = 0; i < barrierCount; i++) {
+                int x = barriers[i] % columns - firstColumn;
+                int y = barriers[i] / columns - firstRow;
+                if (x >= 0 && x < CHUNK_CELLS && y >= 0 && y < CHUNK_CELLS) {
+                    g2d.fillRect(left + x * unitSize, top + y * unitSize, unitSize, unitSize);
+                }
+            }
+
+            g2d.setColor(BackgroundLayer.GRID_COLOR);
+            g2d.setStroke(BackgroundLayer.GRID_STROKE);
+            for (int i = 0; i < CHUNK_CELLS; i++) {
+                g2d.drawLine(left + i * unitSize, top, left + i * unitSize, top + chunkSize);
+                g2d.drawLine(left, top + i * unitSize, left + chunkSize, top + i * unitSize);
+            }
+        }
+        g2d.dispose();
+    }
+}
@@ -0,0 +1,105 @@
+package com.snake.graphics;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Everything under the snake that only changes between levels: the
+ * BackgroundRenderer gradient and pattern, and optionally the barriers and
+ * grid overlay. It is painted once into an opaque image and blitted on every
+ * repaint, and rebuilt only when the size, level or barrier layout changes.
+ */
+public class BackgroundLayer {
+    // Shared with BackgroundChunks so both board sizes look the same
+    static final Color BARRIER_COLOR = Color.WHITE;
+    static final Color GRID_COLOR = new Color(255, 255, 255, 15); // Very subtle white grid
+    static final Stroke GRID_STROKE =
+        new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{2}, 0);
+
+    private final int unitSize;
+    private BufferedImage image;
+    private int level;
+    private boolean board;
+    private int[] barriers = new int[0];
+    private int barrierCount;
+    private int rebuilds;
+
+    public BackgroundLayer(int unitSize) {
+        this.unitSize = unitSize;
+    }
+
+    /**
+     * Draws the level background only.
+     */
+    public void draw(Graphics2D g2d, int width, int height, int level) {
+        validate(width, height, level, false, barriers, 0);
+        g2d.drawImage(image, 0, 0, null);
+    }
+
+    /**
+     * Draws the level background with the barriers (as cell indices on a
+     * width / unitSize wide board) and the grid on top.
+     */
+    public void draw(Graphics2D g2d, int width, int height, int level, int[] barrierCells, int barrierCount) {
+        validate(width, height, level, true, barrierCells, barrierCount);
+        g2d.drawImage(image, 0, 0, null);
+    }
+
+    /**
+     * How many times the layer has been repainted, for checking the cache.
+     */
+    public int getRebuilds() {
+        return rebuilds;
+    }
+
+    private void validate(int width, int height, int level, boolean board, int[] barrierCells, int barrierCount) {
+        if (image != null && image.getWidth() == width && image.getHeight() == height
+                && this.level == level && this.board == board
+                && (!board || sameBarriers(barrierCells, barrierCount))) {
+            return;
+        }
+
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = CompatibleImages.create(width, height, Transparency.OPAQUE);
+        }
+        this.level = level;
+        this.board = board;
+        if (board) {
+            if (barriers.length < barrierCount) {
+                barriers = new int[barrierCount];
+            }
+            System.arraycopy(barrierCells, 0, barriers, 0, barrierCount);
+            this.barrierCount = barrierCount;
+        }
+        paint(width, height);
+        rebuilds++;
+    }
+
+    private boolean sameBarriers(int[] barrierCells, int count) {
+        return count == barrierCount && Arrays.equals(barriers, 0, count, barrierCells, 0, count);
+    }
+
+    private void paint(int width, int height) {
+        Graphics2D g2d = CompatibleImages.createGraphics(image);
+        BackgroundRenderer.drawBackground(g2d, width, height, level);
+
+        if (board) {
+            int columns = width / unitSize;
+
+            g2d.setColor(BARRIER_COLOR);
+            for (int i = 0; i < barrierCount; i++) {
+                int cell = barriers[i];
+                g2d.fillRect((cell % columns) * unitSize, (cell / columns) * unitSize, unitSize, unitSize);
+            }
+
+            g2d.setColor(GRID_COLOR);
+            g2d.setStroke(GRID_STROKE);
+            for (int i = 0; i < height / unitSize; i++) {
+                g2d.drawLine(i * unitSize, 0, i * unitSize, height);
+                g2d.drawLine(0, i * unitSize, width, i * unitSize);
+            }
+        }
+        g2d.dispose();
+    }
+}
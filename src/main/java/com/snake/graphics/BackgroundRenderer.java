@@ -17,6 +17,15 @@ public class BackgroundRenderer {
     };
 
     public static void drawBackground(Graphics2D g2d, int width, int height, int level) {
+        drawBackground(g2d, width, height, level, 0, 0, width, height);
+    }
+
+    /**
+     * Draws only the given area of a width x height background, in the same
+     * coordinates, so a large board can be painted in chunks.
+     */
+    public static void drawBackground(Graphics2D g2d, int width, int height, int level,
+                                      int areaX, int areaY, int areaWidth, int areaHeight) {
         // Make sure level is within bounds (1-based index)
         int colorIndex = Math.max(0, Math.min(level - 1, LEVEL_COLORS.length - 1));
         Color[] colors = LEVEL_COLORS[colorIndex];
@@ -29,13 +38,14 @@ public class BackgroundRenderer {
         
         // Fill background with gradient
         g2d.setPaint(gradient);
-        g2d.fillRect(0, 0, width, height);
+        g2d.fillRect(areaX, areaY, areaWidth, areaHeight);
         
         // Add subtle pattern for texture
-        drawBackgroundPattern(g2d, width, height, colors[1]);
+        drawBackgroundPattern(g2d, height, areaX, areaY, areaWidth, areaHeight);
     }
 
-    private static void drawBackgroundPattern(Graphics2D g2d, int width, int height, Color baseColor) {
+    private static void drawBackgroundPattern(Graphics2D g2d, int height,
+                                              int areaX, int areaY, int areaWidth, int areaHeight) {
         // Save original composite
         Composite originalComposite = g2d.getComposite();
         
@@ -43,10 +53,13 @@ public class BackgroundRenderer {
         g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.1f));
         g2d.setColor(new Color(255, 255, 255));
         
-        // Draw subtle diagonal lines
+        // Draw subtle diagonal lines from (i, 0) to (i + height, height), only the
+        // ones crossing the area and only the part inside it
         int spacing = 20;
-        for (int i = -height; i < width + height; i += spacing) {
-            g2d.drawLine(i, 0, i + height, height);
+        int bottom = areaY + areaHeight;
+        int first = -height + Math.max(0, Math.floorDiv(areaX - bottom + height + spacing - 1, spacing)) * spacing;
+        for (int i = first; i <= areaX + areaWidth - areaY; i += spacing) {
+            g2d.drawLine(i + areaY, areaY, i + bottom, bottom);
         }
         
         // Restore original composite
@@ -0,0 +1,33 @@
+package com.snake.graphics;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Creates offscreen images in the screen's native format, so drawing them
+ * back is a plain blit. Falls back to plain BufferedImages when headless.
+ */
+public final class CompatibleImages {
+    private CompatibleImages() {
+    }
+
+    public static BufferedImage create(int width, int height, int transparency) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+            return config.createCompatibleImage(width, height, transparency);
+        }
+        int type = transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        return new BufferedImage(width, height, type);
+    }
+
+    /**
+     * Graphics with the same rendering hints GamePanel paints with.
+     */
+    public static Graphics2D createGraphics(BufferedImage image) {
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        return g2d;
+    }
+}
@@ -2,6 +2,7 @@ package com.snake.graphics;
 
 import java.awt.*;
 import java.awt.geom.*;
+import java.util.Random;
 
 public class FoodRenderer {
     private static final Color[] FRUIT_COLORS = {
@@ -22,16 +23,30 @@ public class FoodRenderer {
 
     private final int currentFruitIndex;
 
-    public FoodRenderer() {
-        this.currentFruitIndex = (int)(Math.random() * FRUIT_COLORS.length);
+    public FoodRenderer(int fruitIndex) {
+        this.currentFruitIndex = Math.floorMod(fruitIndex, FRUIT_COLORS.length);
+    }
+
+    public static int getFruitCount() {
+        return FRUIT_COLORS.length;
     }
 
     public void drawFood(Graphics2D g2d, int x, int y, int size) {
+        drawFood(g2d, x, y, size, 0, 0);
+    }
+
+    /**
+     * Draws the fruit turned by angle degrees, with the glossy highlight
+     * brightened or dimmed by shimmer in [-1, 1]. Texture spots come from a
+     * fixed seed per fruit, so the same arguments always give the same image.
+     */
+    public void drawFood(Graphics2D g2d, int x, int y, int size, double angle, double shimmer) {
         Color mainColor = FRUIT_COLORS[currentFruitIndex];
         Color shadowColor = FRUIT_SHADOW_COLORS[currentFruitIndex];
+        Random random = new Random(currentFruitIndex);
 
         // Draw main fruit body
-        drawFruitBody(g2d, x, y, size, mainColor, shadowColor);
+        drawFruitBody(g2d, x, y, size, mainColor, shadowColor, angle, shimmer);
 
         // Draw fruit-specific details
         switch (currentFruitIndex) {
@@ -42,23 +57,24 @@ public class FoodRenderer {
                 drawOrange(g2d, x, y, size);
                 break;
             case 2: // Lemon
-                drawLemon(g2d, x, y, size);
+                drawLemon(g2d, x, y, size, random);
                 break;
             case 3: // Grape
-                drawGrape(g2d, x, y, size);
+                drawGrape(g2d, x, y, size, random);
                 break;
             case 4: // Strawberry
-                drawStrawberry(g2d, x, y, size);
+                drawStrawberry(g2d, x, y, size, random);
                 break;
         }
     }
 
-    private void drawFruitBody(Graphics2D g2d, int x, int y, int size, Color mainColor, Color shadowColor) {
+    private void drawFruitBody(Graphics2D g2d, int x, int y, int size, Color mainColor, Color shadowColor,
+                               double angle, double shimmer) {
         // Save the original transform
         AffineTransform originalTransform = g2d.getTransform();
         
-        // Apply slight rotation for more natural look
-        g2d.rotate(Math.toRadians(Math.random() * 360), x + size/2, y + size/2);
+        // Apply rotation for more natural look
+        g2d.rotate(Math.toRadians(angle), x + size/2, y + size/2);
         
         // Create radial gradient for more realistic 3D effect
         Point2D center = new Point2D.Float(x + size/3, y + size/3);
@@ -84,8 +100,9 @@ public class FoodRenderer {
 
         // Add glossy highlight for 3D effect
         int highlightSize = size / 3;
+        int highlightAlpha = (int) Math.max(0, Math.min(255, 160 + 60 * shimmer));
         GradientPaint highlightPaint = new GradientPaint(
-            x + size/6, y + size/6, new Color(255, 255, 255, 160),
+            x + size/6, y + size/6, new Color(255, 255, 255, highlightAlpha),
             x + size/2, y + size/2, new Color(255, 255, 255, 0)
         );
         g2d.setPaint(highlightPaint);
@@ -165,7 +182,7 @@ public class FoodRenderer {
         }
     }
 
-    private void drawLemon(Graphics2D g2d, int x, int y, int size) {
+    private void drawLemon(Graphics2D g2d, int x, int y, int size, Random random) {
         // Draw detailed texture pattern
         g2d.setColor(new Color(218, 165, 32, 100));
         g2d.setStroke(new BasicStroke(0.8f));
@@ -194,21 +211,21 @@ public class FoodRenderer {
         // Add bumpy texture
         g2d.setColor(new Color(218, 165, 32, 50));
         for (int i = 0; i < 20; i++) {
-            int bumpX = x + size/4 + (int)(Math.random() * size/2);
-            int bumpY = y + size/4 + (int)(Math.random() * size/2);
+            int bumpX = x + size/4 + (int)(random.nextDouble() * size/2);
+            int bumpY = y + size/4 + (int)(random.nextDouble() * size/2);
             g2d.fillOval(bumpX, bumpY, 3, 3);
         }
     }
 
-    private void drawGrape(Graphics2D g2d, int x, int y, int size) {
+    private void drawGrape(Graphics2D g2d, int x, int y, int size, Random random) {
         // Create a frosted effect
         g2d.setColor(new Color(255, 255, 255, 30));
         
         // Draw multiple highlight spots for frosted look
         for (int i = 0; i < 3; i++) {
             int highlightSize = size/6;
-            int posX = x + size/4 + (int)(Math.random() * size/2);
-            int posY = y + size/4 + (int)(Math.random() * size/2);
+            int posX = x + size/4 + (int)(random.nextDouble() * size/2);
+            int posY = y + size/4 + (int)(random.nextDouble() * size/2);
             
             RadialGradientPaint frost = new RadialGradientPaint(
                 new Point2D.Float(posX + highlightSize/2, posY + highlightSize/2),
@@ -229,12 +246,12 @@ public class FoodRenderer {
         g2d.fillOval(x + size/8, y + size/8, size*3/4, size*3/4);
     }
 
-    private void drawStrawberry(Graphics2D g2d, int x, int y, int size) {
+    private void drawStrawberry(Graphics2D g2d, int x, int y, int size, Random random) {
         // Draw more realistic seeds pattern
         g2d.setColor(new Color(255, 255, 150));
         int rows = 6;
         int cols = 6;
-        double angleOffset = Math.random() * Math.PI;
+        double angleOffset = random.nextDouble() * Math.PI;
         
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
@@ -0,0 +1,54 @@
+package com.snake.graphics;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Pre-rendered animation frames for every fruit at one cell size. Each fruit
+ * gets FRAMES images of a gentle sway and highlight shimmer, painted once
+ * with FoodRenderer, so the food only needs its type and an animation phase
+ * and drawing it is a single drawImage.
+ */
+public class FoodSprites {
+    public static final int FRAMES = 16;
+    private static final double SWAY_DEGREES = 12;
+
+    private final int size;
+    // The stem and leaf stick out above the cell and the body is rotated, so
+    // leave a full cell of margin on every side
+    private final int margin;
+    private final Image[][] frames;
+
+    public FoodSprites(int size) {
+        this.size = size;
+        this.margin = size;
+        this.frames = new Image[FoodRenderer.getFruitCount()][FRAMES];
+
+        int side = size + 2 * margin;
+        for (int fruit = 0; fruit < frames.length; fruit++) {
+            FoodRenderer renderer = new FoodRenderer(fruit);
+            for (int frame = 0; frame < FRAMES; frame++) {
+                double wave = Math.sin(2 * Math.PI * frame / FRAMES);
+                BufferedImage image = CompatibleImages.create(side, side, Transparency.TRANSLUCENT);
+                Graphics2D g2d = CompatibleImages.createGraphics(image);
+                renderer.drawFood(g2d, margin, margin, size, SWAY_DEGREES * wave, wave);
+                g2d.dispose();
+                frames[fruit][frame] = image;
+            }
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Draws fruit type at the cell whose top-left corner is (x, y). The phase
+     * is any counter that advances once per animation step, such as ticks
+     * since the food was placed.
+     */
+    public void draw(Graphics2D g2d, int type, long phase, int x, int y) {
+        Image image = frames[Math.floorMod(type, frames.length)][(int) Math.floorMod(phase, (long) FRAMES)];
+        g2d.drawImage(image, x - margin, y - margin, null);
+    }
+}
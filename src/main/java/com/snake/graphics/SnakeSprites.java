@@ -0,0 +1,55 @@
+package com.snake.graphics;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Pre-rendered snake sprites for one cell size: the head in each direction
+ * and a body segment. They are painted once with SnakeRenderer, so drawing a
+ * segment is a single drawImage instead of building gradients, shapes and
+ * strokes every frame.
+ */
+public class SnakeSprites {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int size;
+    // The head is larger than a cell and the tongue sticks out past it, so the
+    // head sprites leave a full cell of margin on every side
+    private final int headMargin;
+    private final int bodyMargin = 1;
+    private final Image[] heads = new Image[DIRECTIONS.length];
+    private final Image body;
+
+    public SnakeSprites(int size) {
+        this.size = size;
+        this.headMargin = size;
+
+        for (Direction direction : DIRECTIONS) {
+            int side = size + 2 * headMargin;
+            BufferedImage image = CompatibleImages.create(side, side, Transparency.TRANSLUCENT);
+            Graphics2D g2d = CompatibleImages.createGraphics(image);
+            SnakeRenderer.drawSnakeHead(g2d, headMargin, headMargin, size, direction);
+            g2d.dispose();
+            heads[direction.ordinal()] = image;
+        }
+
+        int bodySide = size + 2 * bodyMargin;
+        BufferedImage image = CompatibleImages.create(bodySide, bodySide, Transparency.TRANSLUCENT);
+        Graphics2D g2d = CompatibleImages.createGraphics(image);
+        SnakeRenderer.drawSnakeBody(g2d, bodyMargin, bodyMargin, size);
+        g2d.dispose();
+        body = image;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void drawHead(Graphics2D g2d, int x, int y, Direction direction) {
+        g2d.drawImage(heads[direction.ordinal()], x - headMargin, y - headMargin, null);
+    }
+
+    public void drawBody(Graphics2D g2d, int x, int y) {
+        g2d.drawImage(body, x - bodyMargin, y - bodyMargin, null);
+    }
+}
@@ -0,0 +1,21 @@
+package com.snake.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One DatabaseManager call, including statement preparation.
+ */
+@Name("com.snake.DbCall")
+@Label("Database Call")
+@Category("Snake")
+@Enabled(false)
+@StackTrace(false)
+public class DbCallEvent extends Event {
+    @Label("Method")
+    public String method;
+}
@@ -0,0 +1,48 @@
+package com.snake.metrics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Starts a flight recording with the game's own events switched on. The
+ * events are disabled by default, so without a recording each one costs a
+ * disabled check that the JIT folds away.
+ */
+public class FlightRecording {
+    private static final Class<?>[] EVENTS = {
+        GameTickEvent.class, FramePaintEvent.class, FoodSpawnEvent.class,
+        LevelChangeEvent.class, DbCallEvent.class
+    };
+
+    private static Recording recording;
+
+    /**
+     * Records the JDK's default events plus every game event, without a
+     * duration threshold, and writes the recording to destination on exit.
+     */
+    public static synchronized void start(String destination) {
+        if (recording != null) {
+            return;
+        }
+        try {
+            Recording newRecording = new Recording(Configuration.getConfiguration("default"));
+            for (Class<?> event : EVENTS) {
+                newRecording.enable(event.asSubclass(Event.class)).withoutThreshold();
+            }
+            Path path = Paths.get(destination).toAbsolutePath();
+            newRecording.setName("snake");
+            newRecording.setToDisk(true);
+            newRecording.setDestination(path);
+            newRecording.setDumpOnExit(true);
+            newRecording.start();
+            recording = newRecording;
+            System.err.println("Flight recording to " + path);
+        } catch (Exception e) {
+            System.err.println("Could not start flight recording: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.snake.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * New food placed after the snake ate.
+ */
+@Name("com.snake.FoodSpawn")
+@Label("Food Spawn")
+@Category("Snake")
+@Description("Food placed on the board")
+@Enabled(false)
+@StackTrace(false)
+public class FoodSpawnEvent extends Event {
+    @Label("Tick")
+    public long tick;
+
+    @Label("Cell")
+    @Description("Board cell of the new food, -1 if the board is full")
+    public int cell;
+
+    @Label("Free Cells")
+    @Description("Cells the food was picked from")
+    public int freeCells;
+
+    @Label("Retries")
+    @Description("Occupied cells drawn and rejected before a free one")
+    public long retries;
+}
@@ -0,0 +1,48 @@
+package com.snake.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Bringing the retained frame up to date and copying it to the screen.
+ * There is one per frame, so the paint path only creates it through
+ * beginIfEnabled() while a recording has it switched on.
+ */
+@Name("com.snake.FramePaint")
+@Label("Frame Paint")
+@Category("Snake")
+@Description("Duration of one frame update and copy")
+@Enabled(false)
+@StackTrace(false)
+public class FramePaintEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(FramePaintEvent.class);
+
+    @Label("Tick")
+    @Description("Tick of the snapshot that was drawn")
+    public long tick;
+
+    @Label("Pixels")
+    @Description("Pixels redrawn in the retained frame")
+    public long pixels;
+
+    @Label("Active Rendering")
+    public boolean active;
+
+    /**
+     * Returns a begun event if a recording has frame paints enabled, or null.
+     */
+    public static FramePaintEvent beginIfEnabled() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        FramePaintEvent event = new FramePaintEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,50 @@
+package com.snake.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One game tick: applying input, stepping the engine and publishing the
+ * snapshot. There is one per tick, so the tick thread only creates it
+ * through beginIfEnabled() while a recording has it switched on.
+ */
+@Name("com.snake.GameTick")
+@Label("Game Tick")
+@Category("Snake")
+@Description("Duration of one tick on the tick thread")
+@Enabled(false)
+@StackTrace(false)
+public class GameTickEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(GameTickEvent.class);
+
+    @Label("Tick")
+    public long tick;
+
+    @Label("Snake Length")
+    public int snakeLength;
+
+    @Label("Level")
+    public int level;
+
+    @Label("Events")
+    @Description("GameEngine EVENT_* flags")
+    public int events;
+
+    /**
+     * Returns a begun event if a recording has game ticks enabled, or null.
+     */
+    public static GameTickEvent beginIfEnabled() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        GameTickEvent event = new GameTickEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,28 @@
+package com.snake.metrics;
+
+/**
+ * JMX view of a Histogram, readable from JConsole or JMC. Values are raw
+ * recorded values (nanoseconds for timings); divide by getUnitScale() to get
+ * them in getUnit().
+ */
+public interface HistogramMXBean {
+    String getName();
+
+    String getUnit();
+
+    double getUnitScale();
+
+    long getCount();
+
+    double getMean();
+
+    long getP50();
+
+    long getP99();
+
+    long getP999();
+
+    long getMax();
+
+    void reset();
+}
@@ -0,0 +1,27 @@
+package com.snake.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The game moved to the next level and rebuilt the board.
+ */
+@Name("com.snake.LevelChange")
+@Label("Level Change")
+@Category("Snake")
+@Enabled(false)
+@StackTrace(false)
+public class LevelChangeEvent extends Event {
+    @Label("Tick")
+    public long tick;
+
+    @Label("From Level")
+    public int fromLevel;
+
+    @Label("To Level")
+    public int toLevel;
+}
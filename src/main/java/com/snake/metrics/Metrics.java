@@ -0,0 +1,48 @@
+package com.snake.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Registers histograms with the platform MBean server as
+ * com.snake:type=Histogram,name="...". Registering a histogram under a name
+ * that is already taken replaces the old one, so a new game session simply
+ * takes over the names of the previous one.
+ */
+public final class Metrics {
+    public static final String DOMAIN = "com.snake";
+
+    private Metrics() {
+    }
+
+    public static synchronized void register(Histogram histogram) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = nameOf(histogram);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(histogram, name);
+        } catch (JMException e) {
+            System.err.println("Error registering metric " + histogram.getName() + ": " + e.getMessage());
+        }
+    }
+
+    public static synchronized void unregister(Histogram histogram) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = nameOf(histogram);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            System.err.println("Error unregistering metric " + histogram.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private static ObjectName nameOf(Histogram histogram) throws JMException {
+        return new ObjectName(DOMAIN + ":type=Histogram,name=" + ObjectName.quote(histogram.getName()));
+    }
+}
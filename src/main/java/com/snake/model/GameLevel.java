@@ -2,16 +2,15 @@ package com.snake.model;
 
 import java.awt.Color;
 
-import java.awt.Point;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
-
+/**
+ * Immutable per-level display settings for the Swing UI. The engines in
+ * com.snake.game take their level rules from GameEngine and Barriers, so
+ * they never load this class or AWT.
+ */
 public class GameLevel {
     private final int level;
     private final int speed;
     private final Color color;
-    private final List<Point> barriers;
 
     private static final GameLevel[] LEVELS = new GameLevel[10];
     
@@ -32,10 +31,6 @@ public class GameLevel {
         this.level = level;
         this.speed = speed;
         this.color = color;
-        this.barriers = new ArrayList<>();
-        
-        // Initialize barriers list so it's not null
-        this.barriers.clear();
     }
 
     public static GameLevel getLevel(int level) {
@@ -65,66 +60,6 @@ public class GameLevel {
         return color;
     }
 
-    public List<Point> getBarriers() {
-        return barriers;
-    }
-
-    public void generateBarriers(int screenWidth, int screenHeight, int unitSize, List<Point> snakeParts, Point food) {
-        barriers.clear();
-        if (level == 1) return; // No barriers in level 1
-
-        Random random = new Random();
-        int numBarriers = (level - 1) * 5; // 5 barriers per level after level 1
-        int maxX = screenWidth / unitSize;
-        int maxY = screenHeight / unitSize;
-
-        while (barriers.size() < numBarriers) {
-            int x = random.nextInt(maxX) * unitSize;
-            int y = random.nextInt(maxY) * unitSize;
-            Point barrier = new Point(x, y);
-
-            // Check if barrier position is valid
-            if (isValidBarrierPosition(barrier, snakeParts, food, unitSize)) {
-                barriers.add(barrier);
-            }
-        }
-    }
-
-    private boolean isValidBarrierPosition(Point barrier, List<Point> snakeParts, Point food, int unitSize) {
-        // Don't place barrier on food
-        if (food != null && barrier.equals(food)) {
-            return false;
-        }
-
-        // Don't place barrier on snake
-        for (Point snakePart : snakeParts) {
-            if (barrier.equals(snakePart)) {
-                return false;
-            }
-        }
-
-        // Don't place barrier too close to snake head
-        Point snakeHead = snakeParts.get(0);
-        int safeDistance = 2 * unitSize;
-        if (Math.abs(barrier.x - snakeHead.x) < safeDistance && 
-            Math.abs(barrier.y - snakeHead.y) < safeDistance) {
-            return false;
-        }
-
-        // Don't place barrier on existing barrier
-        for (Point existingBarrier : barriers) {
-            if (barrier.equals(existingBarrier)) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
-    public boolean isCollision(Point point) {
-        return barriers.contains(point);
-    }
-
     @Override
     public String toString() {
         return String.format("Level %d (Speed: %dms)", level, speed);
@@ -0,0 +1,120 @@
+package com.snake.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A client socket on the GameServer's selector, with its own input and
+ * output buffers. Frames are written straight to the socket; whatever the
+ * socket doesn't take stays in the output buffer and goes out on OP_WRITE.
+ * A client too slow to drain a whole snapshot skips that snapshot rather
+ * than queueing up stale ones. Only the server thread touches a connection.
+ */
+class Connection {
+    private final GameServer server;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final ByteBuffer in = ByteBuffer.allocate(256);
+    private final ByteBuffer out;
+    private Room room;
+    private int snake = -1;
+    private long dropped;
+    private boolean closed;
+
+    Connection(GameServer server, SocketChannel channel, SelectionKey key, int outputSize) {
+        this.server = server;
+        this.channel = channel;
+        this.key = key;
+        this.out = ByteBuffer.allocate(outputSize);
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    ByteBuffer getInput() {
+        return in;
+    }
+
+    ByteBuffer getOutput() {
+        return out;
+    }
+
+    Room getRoom() {
+        return room;
+    }
+
+    int getSnake() {
+        return snake;
+    }
+
+    void setSnake(Room room, int snake) {
+        this.room = room;
+        this.snake = snake;
+    }
+
+    /**
+     * Snapshots skipped because the previous ones were still unsent.
+     */
+    long getDropped() {
+        return dropped;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Queues a complete frame (or several) and tries to write it right away.
+     * The frame is skipped if it doesn't fit behind what is still unsent.
+     */
+    void send(ByteBuffer frame) {
+        if (closed) {
+            return;
+        }
+        if (out.remaining() < frame.remaining()) {
+            dropped++;
+            return;
+        }
+        out.put(frame.duplicate());
+        flush();
+    }
+
+    /**
+     * Writes as much of the output buffer as the socket takes, and waits for
+     * OP_WRITE only while something is left.
+     */
+    void flush() {
+        try {
+            out.flip();
+            channel.write(out);
+            out.compact();
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        int ops = out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (key.interestOps() != ops) {
+            key.interestOps(ops);
+        }
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (room != null) {
+            room.leave(snake);
+        }
+        key.cancel();
+        server.disconnected(this);
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Already gone; nothing else to release
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package com.snake.server;
+
+import com.snake.game.GameRandom;
+import com.snake.metrics.Histogram;
+import com.snake.metrics.Metrics;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authoritative multiplayer server. One thread runs a non-blocking NIO
+ * selector over every client socket and ticks every room between selects,
+ * so rooms and connections are never shared between threads and need no
+ * locks. Clients send JOIN and INPUT frames and get a SNAPSHOT of their room
+ * after each of its ticks (see Protocol).
+ *
+ * A room is created by the first JOIN for its id and dropped at its next
+ * tick once its last player has left. Tick times are kept per room while it
+ * is open, registered with Metrics as "room <id> tick", and folded into the
+ * server-wide histograms when it closes, so the server's memory doesn't grow
+ * with the number of rooms it has hosted. Every REPORT_NANOS the p99 tick
+ * time of each open room is also collected into getOpenRoomTickP99().
+ *
+ * Usage: GameServer [port] [snakesPerRoom] [boardSize] [maxRooms]
+ */
+public class GameServer implements Runnable {
+    private static final long REPORT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final int snakesPerRoom;
+    private final int columns;
+    private final int rows;
+    private final int maxRooms;
+    private final long seed;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Map<Integer, Room> rooms = new HashMap<>();
+    private final Histogram tickLateness = new Histogram("tick lateness");
+    // Ticks and per-room p99s of closed rooms; open ones are folded in when they close
+    private final Histogram roomTickTime = new Histogram("room tick");
+    private final Histogram roomTickP99 = new Histogram("room tick p99");
+    // Rebuilt by the server thread every REPORT_NANOS from the rooms open at the time
+    private final Histogram openRoomTickP99 = new Histogram("open room tick p99");
+    private final ByteBuffer reply = ByteBuffer.allocate(64);
+    private final int outputSize;
+    private volatile boolean stopped;
+    private volatile boolean resetStats;
+    private volatile IOException failure;
+    private volatile int roomCount;
+    private volatile int connections;
+    private volatile long droppedSnapshots;
+    private volatile int worstOpenRoom = -1;
+    private long nextReport;
+
+    public GameServer(InetSocketAddress address, int snakesPerRoom, int columns, int rows, int maxRooms, long seed)
+            throws IOException {
+        if (columns * rows > Protocol.MAX_CELLS || snakesPerRoom < 1 || snakesPerRoom > Byte.MAX_VALUE
+                || !Room.fits(columns, rows, snakesPerRoom)
+                || Room.maxSnapshotSize(columns, rows, snakesPerRoom) - Protocol.HEADER > Protocol.MAX_FRAME) {
+            throw new IllegalArgumentException("Unsupported room: " + snakesPerRoom + " snakes on "
+                + columns + "x" + rows);
+        }
+        this.snakesPerRoom = snakesPerRoom;
+        this.columns = columns;
+        this.rows = rows;
+        this.maxRooms = maxRooms;
+        this.seed = seed;
+        // Room for a few snapshots, so a briefly slow client doesn't miss any
+        this.outputSize = 4 * Room.maxSnapshotSize(columns, rows, snakesPerRoom);
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(address, 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * How late each room tick started after its deadline.
+     */
+    public Histogram getTickLateness() {
+        return tickLateness;
+    }
+
+    /**
+     * Time of every tick of the rooms closed so far, including all rooms
+     * once the server thread has finished.
+     */
+    public Histogram getRoomTickTime() {
+        return roomTickTime;
+    }
+
+    /**
+     * One value per closed room that ticked: its p99 tick time.
+     */
+    public Histogram getRoomTickP99() {
+        return roomTickP99;
+    }
+
+    /**
+     * One value per open room that has ticked: its p99 tick time so far, as
+     * of the server thread's last report pass.
+     */
+    public Histogram getOpenRoomTickP99() {
+        return openRoomTickP99;
+    }
+
+    /**
+     * Id of the open room with the highest p99 tick time at the last report
+     * pass, or -1 if no room had ticked.
+     */
+    public int getWorstOpenRoom() {
+        return worstOpenRoom;
+    }
+
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    public int getConnectionCount() {
+        return connections;
+    }
+
+    /**
+     * Snapshots not sent because a client had not drained the earlier ones,
+     * counted when the client disconnects.
+     */
+    public long getDroppedSnapshots() {
+        return droppedSnapshots;
+    }
+
+    /**
+     * The I/O error that stopped the server thread, or null.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Clears the tick histograms on the server thread's next pass, e.g. after
+     * a load test's warm-up.
+     */
+    public void resetStats() {
+        resetStats = true;
+        selector.wakeup();
+    }
+
+    public void stop() {
+        stopped = true;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!stopped) {
+                if (resetStats) {
+                    resetStats = false;
+                    tickLateness.reset();
+                    roomTickTime.reset();
+                    roomTickP99.reset();
+                    for (Room room : rooms.values()) {
+                        room.getTickTimeHistogram().reset();
+                    }
+                }
+                long next = tickRooms();
+                if (System.nanoTime() - nextReport >= 0) {
+                    reportOpenRooms();
+                    nextReport = System.nanoTime() + REPORT_NANOS;
+                }
+                long waitNanos = next - System.nanoTime();
+                if (waitNanos <= 0) {
+                    selector.selectNow();
+                } else {
+                    // select() counts in milliseconds; round up so the deadline has passed on wake-up
+                    selector.select(Math.max(1, (waitNanos + 999_999) / 1_000_000));
+                }
+                handleKeys();
+            }
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    ((Connection) key.attachment()).close();
+                }
+            }
+            for (Room room : rooms.values()) {
+                closeRoom(room);
+            }
+            rooms.clear();
+            roomCount = 0;
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    // Ticks every room that is due and returns the earliest deadline left
+    private long tickRooms() {
+        long next = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        for (Iterator<Room> it = rooms.values().iterator(); it.hasNext(); ) {
+            Room room = it.next();
+            if (room.getPlayerCount() == 0) {
+                it.remove();
+                roomCount = rooms.size();
+                closeRoom(room);
+                continue;
+            }
+            // Read the clock per room: rooms late in a long pass start well after the pass did
+            long now = System.nanoTime();
+            long deadline = room.getDeadline();
+            if (room.tickIfDue(now)) {
+                tickLateness.record(now - deadline);
+            }
+            next = Math.min(next, room.getDeadline());
+        }
+        return next;
+    }
+
+    private void reportOpenRooms() {
+        openRoomTickP99.reset();
+        int worst = -1;
+        long worstP99 = -1;
+        for (Room room : rooms.values()) {
+            Histogram tickTime = room.getTickTimeHistogram();
+            if (tickTime.getCount() > 0) {
+                long p99 = tickTime.getP99();
+                openRoomTickP99.record(p99);
+                if (p99 > worstP99) {
+                    worstP99 = p99;
+                    worst = room.getId();
+                }
+            }
+        }
+        worstOpenRoom = worst;
+    }
+
+    private void closeRoom(Room room) {
+        Histogram tickTime = room.getTickTimeHistogram();
+        Metrics.unregister(tickTime);
+        if (tickTime.getCount() > 0) {
+            roomTickTime.add(tickTime);
+            roomTickP99.record(tickTime.getP99());
+        }
+    }
+
+    private void handleKeys() throws IOException {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            Connection connection = (Connection) key.attachment();
+            if (key.isWritable()) {
+                connection.flush();
+            }
+            if (key.isValid() && key.isReadable()) {
+                read(connection);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(this, channel, key, outputSize));
+            connections++;
+        }
+    }
+
+    private void read(Connection connection) {
+        ByteBuffer in = connection.getInput();
+        try {
+            if (connection.getChannel().read(in) < 0) {
+                connection.close();
+                return;
+            }
+        } catch (IOException e) {
+            connection.close();
+            return;
+        }
+        in.flip();
+        while (in.remaining() >= Protocol.HEADER) {
+            int length = Short.toUnsignedInt(in.getShort(in.position()));
+            if (length < 1 || length > in.capacity() - Protocol.HEADER) {
+                connection.close(); // Not our protocol
+                return;
+            }
+            if (in.remaining() < Protocol.HEADER + length) {
+                break;
+            }
+            int end = in.position() + Protocol.HEADER + length;
+            in.position(in.position() + Protocol.HEADER);
+            handleFrame(connection, in, length);
+            in.position(end);
+            if (connection.isClosed()) {
+                return;
+            }
+        }
+        in.compact();
+    }
+
+    private void handleFrame(Connection connection, ByteBuffer in, int length) {
+        byte type = in.get();
+        if (type == Protocol.JOIN && length >= 5 && connection.getRoom() == null) {
+            join(connection, in.getInt());
+        } else if (type == Protocol.INPUT && length >= 2 && connection.getRoom() != null) {
+            connection.getRoom().input(connection.getSnake(), in.get());
+        }
+    }
+
+    private void join(Connection connection, int roomId) {
+        Room room = rooms.get(roomId);
+        if (room == null && rooms.size() < maxRooms) {
+            room = new Room(roomId, columns, rows, snakesPerRoom, GameRandom.seedFor(seed, roomId), System.nanoTime());
+            rooms.put(roomId, room);
+            roomCount = rooms.size();
+            Metrics.register(room.getTickTimeHistogram());
+        }
+        int snake = room == null ? -1 : room.join(connection);
+        reply.clear();
+        if (snake < 0) {
+            Protocol.endFrame(reply, Protocol.beginFrame(reply, Protocol.FULL));
+            reply.flip();
+            connection.send(reply);
+            connection.close();
+            return;
+        }
+        connection.setSnake(room, snake);
+        int start = Protocol.beginFrame(reply, Protocol.WELCOME);
+        reply.putInt(roomId);
+        reply.put((byte) snake);
+        reply.putShort((short) columns);
+        reply.putShort((short) rows);
+        Protocol.endFrame(reply, start);
+        reply.flip();
+        connection.send(reply);
+    }
+
+    // Called by Connection.close(), possibly in the middle of a room's tick
+    void disconnected(Connection connection) {
+        connections--;
+        droppedSnapshots += connection.getDropped();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        int snakes = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : 24;
+        int maxRooms = args.length > 3 ? Integer.parseInt(args[3]) : 2_000;
+
+        GameServer server = new GameServer(new InetSocketAddress(port), snakes, size, size, maxRooms,
+            System.nanoTime());
+        System.out.printf("Snake server on port %d: %d snakes per room, %dx%d board, up to %d rooms%n",
+            server.getPort(), snakes, size, size, maxRooms);
+        // Visible to JConsole/JMC under com.snake:type=Histogram, next to each open room's
+        Histogram[] histograms = {server.getTickLateness(), server.getRoomTickTime(), server.getRoomTickP99(),
+            server.getOpenRoomTickP99()};
+        for (Histogram histogram : histograms) {
+            Metrics.register(histogram);
+        }
+        Thread thread = new Thread(server, "snake-server");
+        thread.start();
+        while (thread.isAlive()) {
+            thread.join(TimeUnit.NANOSECONDS.toMillis(REPORT_NANOS));
+            System.out.printf("%d rooms, %d connections, %s%n", server.getRoomCount(), server.getConnectionCount(),
+                server.getTickLateness());
+            Histogram roomP99s = server.getOpenRoomTickP99();
+            if (roomP99s.getCount() > 0) {
+                System.out.printf("open room p99 tick: median %.1fus, 99th percentile of rooms %.1fus, "
+                    + "worst %.1fus (room %d)%n", roomP99s.getP50() / 1e3, roomP99s.getP99() / 1e3,
+                    roomP99s.getMax() / 1e3, server.getWorstOpenRoom());
+            }
+        }
+        if (server.getFailure() != null) {
+            server.getFailure().printStackTrace();
+        }
+    }
+}
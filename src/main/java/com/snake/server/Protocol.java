@@ -0,0 +1,86 @@
+package com.snake.server;
+
+import com.snake.game.ArenaEngine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format between GameServer and its clients. Every message is a frame:
+ * an unsigned 16-bit big-endian length, then that many bytes starting with
+ * a one-byte type.
+ *
+ * Client to server:
+ * <pre>
+ *   JOIN   int roomId                   take a snake in the room
+ *   INPUT  byte direction               Direction ordinal, applied next tick
+ * </pre>
+ * Server to client:
+ * <pre>
+ *   WELCOME   int roomId, byte snake, short columns, short rows
+ *   SNAPSHOT  int tick, byte level, byte snakes, byte foods, byte barriers,
+ *             foods x short cell, barriers x short cell,
+ *             per snake: int score, short length, length x short cell (head first)
+ *   FULL      (no payload; the room or server is full and the socket closes)
+ * </pre>
+ * Cells are y * columns + x, so boards are limited to MAX_CELLS.
+ */
+public final class Protocol {
+    public static final byte JOIN = 1;
+    public static final byte INPUT = 2;
+
+    public static final byte WELCOME = 1;
+    public static final byte SNAPSHOT = 2;
+    public static final byte FULL = 3;
+
+    public static final int MAX_CELLS = 1 << 16;
+    public static final int MAX_FRAME = (1 << 16) - 1;
+    public static final int HEADER = 2;
+
+    private Protocol() {
+    }
+
+    /**
+     * Starts a frame of the given type; finish it with endFrame().
+     */
+    public static int beginFrame(ByteBuffer out, byte type) {
+        int start = out.position();
+        out.putShort((short) 0);
+        out.put(type);
+        return start;
+    }
+
+    public static void endFrame(ByteBuffer out, int start) {
+        out.putShort(start, (short) (out.position() - start - HEADER));
+    }
+
+    /**
+     * Largest SNAPSHOT frame for an arena of this shape.
+     */
+    public static int maxSnapshotSize(int cells, int snakes, int foods, int barriers) {
+        return HEADER + 9 + 2 * foods + 2 * barriers + snakes * 6 + 2 * cells;
+    }
+
+    public static void writeSnapshot(ByteBuffer out, ArenaEngine arena) {
+        int start = beginFrame(out, SNAPSHOT);
+        out.putInt(arena.getTicks());
+        out.put((byte) arena.getLevel());
+        out.put((byte) arena.getSnakeCount());
+        out.put((byte) arena.getFoodCount());
+        out.put((byte) arena.getBarrierCount());
+        for (int i = 0; i < arena.getFoodCount(); i++) {
+            out.putShort((short) arena.getFood(i));
+        }
+        for (int i = 0; i < arena.getBarrierCount(); i++) {
+            out.putShort((short) arena.getBarrierCell(i));
+        }
+        for (int snake = 0; snake < arena.getSnakeCount(); snake++) {
+            int length = arena.getSnakeLength(snake);
+            out.putInt(arena.getScore(snake));
+            out.putShort((short) length);
+            for (int i = 0; i < length; i++) {
+                out.putShort((short) arena.getSnakeCell(snake, i));
+            }
+        }
+        endFrame(out, start);
+    }
+}
@@ -0,0 +1,158 @@
+package com.snake.server;
+
+import com.snake.bot.ArenaGreedyPolicy;
+import com.snake.game.ArenaEngine;
+import com.snake.game.Barriers;
+import com.snake.game.GameEngine;
+import com.snake.graphics.Direction;
+import com.snake.metrics.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One game hosted by GameServer: an ArenaEngine with levelling on, so the
+ * score and level rules are GamePanel's. Snakes not taken by a connection
+ * are steered by ArenaGreedyPolicy. Inputs are buffered per snake, last one
+ * wins, and applied at the start of the next tick.
+ *
+ * Ticks are fixed-rate at the level's GameEngine tick delay: each deadline
+ * is one period after the previous one, and a room that falls more than
+ * MAX_CATCH_UP periods behind skips ahead, as in GameLoop. Only the server
+ * thread touches a room.
+ */
+class Room {
+    private static final int MAX_CATCH_UP = 5;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final ArenaGreedyPolicy BOTS = new ArenaGreedyPolicy();
+
+    private final int id;
+    private final ArenaEngine arena;
+    private final Connection[] players;
+    private final Direction[] inputs;
+    private final ByteBuffer snapshot;
+    private final Histogram tickTime;
+    private int playerCount;
+    private long deadline;
+
+    Room(int id, int columns, int rows, int snakes, long seed, long now) {
+        this.id = id;
+        this.arena = new ArenaEngine(columns, rows, snakes, foodCount(snakes), 1, true, seed);
+        this.players = new Connection[snakes];
+        this.inputs = new Direction[snakes];
+        this.snapshot = ByteBuffer.allocate(maxSnapshotSize(columns, rows, snakes));
+        this.tickTime = new Histogram("room " + id + " tick");
+        this.deadline = now + periodNanos();
+    }
+
+    /**
+     * Food items on the board of a room with this many snakes.
+     */
+    static int foodCount(int snakes) {
+        return Math.max(1, snakes / 2);
+    }
+
+    /**
+     * Whether ArenaEngine has room for this many snakes, their food and every
+     * level's barriers on a board this size.
+     */
+    static boolean fits(int columns, int rows, int snakes) {
+        return snakes + foodCount(snakes) + Barriers.getMaxCount() <= columns * rows / 4;
+    }
+
+    static int maxSnapshotSize(int columns, int rows, int snakes) {
+        return Protocol.maxSnapshotSize(columns * rows, snakes, foodCount(snakes), Barriers.getMaxCount());
+    }
+
+    int getId() {
+        return id;
+    }
+
+    ArenaEngine getArena() {
+        return arena;
+    }
+
+    /**
+     * Time spent stepping the room and handing its snapshot to every player.
+     */
+    Histogram getTickTimeHistogram() {
+        return tickTime;
+    }
+
+    int getPlayerCount() {
+        return playerCount;
+    }
+
+    long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Gives the connection a free snake, or returns -1 if all are taken.
+     */
+    int join(Connection connection) {
+        for (int snake = 0; snake < players.length; snake++) {
+            if (players[snake] == null) {
+                players[snake] = connection;
+                inputs[snake] = null;
+                playerCount++;
+                return snake;
+            }
+        }
+        return -1;
+    }
+
+    void leave(int snake) {
+        if (players[snake] != null) {
+            players[snake] = null;
+            playerCount--;
+        }
+    }
+
+    void input(int snake, int direction) {
+        if (direction >= 0 && direction < DIRECTIONS.length) {
+            inputs[snake] = DIRECTIONS[direction];
+        }
+    }
+
+    /**
+     * Runs the tick if its deadline has passed and returns whether it did.
+     */
+    boolean tickIfDue(long now) {
+        if (now < deadline) {
+            return false;
+        }
+        long start = System.nanoTime();
+        for (int snake = 0; snake < players.length; snake++) {
+            if (players[snake] == null) {
+                arena.turn(snake, BOTS.chooseDirection(arena, snake));
+            } else if (inputs[snake] != null) {
+                arena.turn(snake, inputs[snake]);
+                inputs[snake] = null;
+            }
+        }
+        arena.step();
+
+        snapshot.clear();
+        Protocol.writeSnapshot(snapshot, arena);
+        snapshot.flip();
+        for (Connection player : players) {
+            if (player != null) {
+                player.send(snapshot);
+            }
+        }
+        tickTime.record(System.nanoTime() - start);
+
+        // Advance from the previous deadline so the rate doesn't drift; the level may have changed the period
+        long period = periodNanos();
+        deadline += period;
+        if (now - deadline > MAX_CATCH_UP * period) {
+            deadline = now + period;
+        }
+        return true;
+    }
+
+    private long periodNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(GameEngine.getTickDelay(arena.getLevel()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.snake.sim;
+
+import com.snake.bot.AutopilotPolicy;
+import com.snake.game.GameEngine;
+import com.snake.graphics.Direction;
+import com.snake.metrics.Histogram;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Plays AutopilotPolicy games and prints the decision time histogram and
+ * the bytes allocated per decision, measured with ThreadMXBean. Exits with
+ * status 1 if decisions allocate once warmed up or if p99 is over the
+ * limit, by default 75 us so that a decision stays well under 100 us.
+ *
+ * Usage: AutopilotCheck [boardSize] [decisions] [level] [maxP99Micros]
+ */
+public class AutopilotCheck {
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int decisions = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int level = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        double maxP99Micros = args.length > 3 ? Double.parseDouble(args[3]) : 75;
+
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        AutopilotPolicy policy = new AutopilotPolicy();
+        Histogram decisionTime = new Histogram("decision");
+        long[] stats = new long[3];
+        // The first run warms up the JIT and sizes the search arrays
+        play(size, level, policy, decisions / 10, new Histogram("warm-up"), threads, stats);
+        stats[0] = stats[1] = stats[2] = 0;
+        play(size, level, policy, decisions, decisionTime, threads, stats);
+
+        System.out.printf("%dx%d board, level %d: %d decisions, %d games, %d foods eaten%n",
+            size, size, level, decisions, stats[1], stats[2]);
+        System.out.println(decisionTime);
+        System.out.printf("%d bytes allocated while deciding, %.2f bytes/decision%n",
+            stats[0], (double) stats[0] / decisions);
+        if (stats[0] > 0 || decisionTime.getP99() / 1000.0 > maxP99Micros) {
+            System.out.printf("FAILED: allocation or p99 over %.0f us%n", maxP99Micros);
+            System.exit(1);
+        }
+    }
+
+    // Adds bytes allocated to stats[0], games to stats[1] and foods eaten to stats[2]
+    private static void play(int size, int level, AutopilotPolicy policy, int decisions, Histogram decisionTime,
+                             com.sun.management.ThreadMXBean threads, long[] stats) {
+        GameEngine engine = new GameEngine(size, size, level, 0, 7);
+        stats[1]++;
+        for (int i = 0; i < decisions; i++) {
+            if (!engine.isAlive()) {
+                engine = new GameEngine(size, size, level, 0, 7 + stats[1]);
+                stats[1]++;
+            }
+            long bytes = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            Direction direction = policy.chooseDirection(engine);
+            long end = System.nanoTime();
+            stats[0] += threads.getCurrentThreadAllocatedBytes() - bytes;
+            decisionTime.record(end - start);
+            if ((engine.step(direction) & GameEngine.EVENT_ATE) != 0) {
+                stats[2]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.snake.sim;
+
+import com.snake.game.GameEngine;
+import com.snake.metrics.Histogram;
+
+/**
+ * Aggregated outcome of a batch of simulated games. Each fork/join leaf fills
+ * its own instance and results are merged on join, so workers never share
+ * mutable state.
+ */
+public class BatchResult {
+    private long games;
+    private long ticks;
+    private long foodSpawns;
+    private long foodSpawnRetries;
+    private final long[] finalLevels = new long[GameEngine.MAX_LEVEL + 1];
+    private final Histogram survivalTicks = new Histogram("survival ticks");
+    private final Histogram foodsEaten = new Histogram("foods eaten");
+    private final Histogram finalScores = new Histogram("final score");
+
+    void record(GameEngine engine, long foods) {
+        games++;
+        ticks += engine.getTicks();
+        foodSpawns += engine.getFoodSpawns();
+        foodSpawnRetries += engine.getFoodSpawnRetries();
+        finalLevels[engine.getLevel()]++;
+        survivalTicks.record(engine.getTicks());
+        foodsEaten.record(foods);
+        finalScores.record(engine.getScore());
+    }
+
+    BatchResult merge(BatchResult other) {
+        games += other.games;
+        ticks += other.ticks;
+        foodSpawns += other.foodSpawns;
+        foodSpawnRetries += other.foodSpawnRetries;
+        for (int i = 0; i < finalLevels.length; i++) {
+            finalLevels[i] += other.finalLevels[i];
+        }
+        survivalTicks.add(other.survivalTicks);
+        foodsEaten.add(other.foodsEaten);
+        finalScores.add(other.finalScores);
+        return this;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getFoodSpawns() {
+        return foodSpawns;
+    }
+
+    /**
+     * Occupied cells drawn and rejected while placing food, over all games.
+     */
+    public long getFoodSpawnRetries() {
+        return foodSpawnRetries;
+    }
+
+    public long getFinalLevelCount(int level) {
+        return finalLevels[level];
+    }
+
+    public Histogram getSurvivalTicks() {
+        return survivalTicks;
+    }
+
+    public Histogram getFoodsEaten() {
+        return foodsEaten;
+    }
+
+    public Histogram getFinalScores() {
+        return finalScores;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("games: %d, ticks: %d, food spawns: %d (%d retries)%n",
+            games, ticks, foodSpawns, foodSpawnRetries));
+        sb.append(describe(survivalTicks)).append(System.lineSeparator());
+        sb.append(describe(foodsEaten)).append(System.lineSeparator());
+        sb.append(describe(finalScores)).append(System.lineSeparator());
+        sb.append("final level:");
+        for (int level = 1; level < finalLevels.length; level++) {
+            if (finalLevels[level] > 0) {
+                sb.append(String.format(" L%d=%.1f%%", level, 100.0 * finalLevels[level] / games));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String describe(Histogram histogram) {
+        return String.format("%-15s mean=%.1f p10=%d p50=%d p90=%d p99=%d max=%d",
+            histogram.getName() + ":", histogram.getMean(),
+            histogram.getPercentile(10), histogram.getPercentile(50),
+            histogram.getPercentile(90), histogram.getPercentile(99), histogram.getMax());
+    }
+}
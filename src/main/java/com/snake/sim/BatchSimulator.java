@@ -0,0 +1,122 @@
+package com.snake.sim;
+
+import com.snake.bot.AutopilotPolicy;
+import com.snake.bot.BotPolicy;
+import com.snake.bot.GreedyPolicy;
+import com.snake.game.GameEngine;
+import com.snake.game.GameRandom;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays N seeded games with a bot policy across all cores using fork/join.
+ * Game i always uses seed GameRandom.seedFor(seed, i), so a batch is
+ * reproducible regardless of thread count. Each leaf task owns its engines,
+ * policy and BatchResult, and nothing mutable is shared between workers, so
+ * throughput scales with cores.
+ *
+ * Usage: BatchSimulator [games] [level] [threads] [policy] [seed] [size]
+ */
+public class BatchSimulator {
+    private static final int LEAF_GAMES = 64;
+
+    private final int columns;
+    private final int rows;
+    private final int startLevel;
+    private final long maxTicks;
+    private final long seed;
+    private final Supplier<BotPolicy> policyFactory;
+
+    public BatchSimulator(int columns, int rows, int startLevel, long maxTicks, long seed,
+                          Supplier<BotPolicy> policyFactory) {
+        this.columns = columns;
+        this.rows = rows;
+        this.startLevel = startLevel;
+        this.maxTicks = maxTicks;
+        this.seed = seed;
+        this.policyFactory = policyFactory;
+    }
+
+    public BatchResult run(int games, ForkJoinPool pool) {
+        return pool.invoke(new GamesTask(0, games));
+    }
+
+    /**
+     * Plays one game to its end (or maxTicks) and records it.
+     */
+    void playGame(long index, BotPolicy policy, BatchResult result) {
+        GameEngine engine = new GameEngine(columns, rows, startLevel, 0, GameRandom.seedFor(seed, index));
+        long foods = 0;
+        while (engine.isAlive() && engine.getTicks() < maxTicks) {
+            int events = engine.step(policy.chooseDirection(engine));
+            if ((events & GameEngine.EVENT_ATE) != 0) {
+                foods++;
+            }
+        }
+        result.record(engine, foods);
+    }
+
+    private class GamesTask extends RecursiveTask<BatchResult> {
+        private final long from;
+        private final long to;
+
+        GamesTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected BatchResult compute() {
+            if (to - from <= LEAF_GAMES) {
+                BotPolicy policy = policyFactory.get();
+                BatchResult result = new BatchResult();
+                for (long i = from; i < to; i++) {
+                    playGame(i, policy, result);
+                }
+                return result;
+            }
+            long middle = (from + to) >>> 1;
+            GamesTask left = new GamesTask(from, middle);
+            left.fork();
+            BatchResult right = new GamesTask(middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    public static Supplier<BotPolicy> policyFactory(String name) {
+        switch (name) {
+            case "greedy":
+                return GreedyPolicy::new;
+            case "autopilot":
+                return AutopilotPolicy::new;
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int level = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        String policy = args.length > 3 ? args[3] : "greedy";
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        int size = args.length > 5 ? Integer.parseInt(args[5]) : 24;
+
+        BatchSimulator simulator = new BatchSimulator(size, size, level, 20_000, seed, policyFactory(policy));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        // Warm up so the JIT has compiled the game loop before timing
+        simulator.run(Math.min(games, 1_000), pool);
+
+        long start = System.nanoTime();
+        BatchResult result = simulator.run(games, pool);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        System.out.printf("%d games, %s policy, start level %d, %dx%d board, %d threads: %.2fs, %.0f games/s, %.0f ticks/s%n",
+            games, policy, level, size, size, threads, elapsed, games / elapsed, result.getTicks() / elapsed);
+        System.out.println(result);
+    }
+}
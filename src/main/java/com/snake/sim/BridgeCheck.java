@@ -0,0 +1,169 @@
+package com.snake.sim;
+
+import com.snake.bot.SharedMemoryBridge;
+import com.snake.game.GameEngine;
+import com.snake.graphics.Direction;
+import com.snake.metrics.Histogram;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Plays headless games through a SharedMemoryBridge and prints the round
+ * trip from publishing a state to seeing the bot's answer. The bot is a
+ * greedy client that maps the file on its own and only uses the documented
+ * layout. It runs on a thread here, or in a second JVM when a file is given:
+ * start "BridgeCheck bot FILE" there first. Exits with status 1 if more
+ * than 1% of the ticks go unanswered within the wait.
+ *
+ * Usage: BridgeCheck [ticks] [boardSize] [waitMicros] [file]
+ *        BridgeCheck bot FILE   (runs only the client)
+ */
+public class BridgeCheck {
+    private static final VarHandle LONGS =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 1 && "bot".equals(args[0])) {
+            runBot(Path.of(args[1]), Long.MAX_VALUE);
+            return;
+        }
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 24;
+        long waitNanos = (args.length > 2 ? Long.parseLong(args[2]) : 1_000) * 1_000L;
+        Path file = args.length > 3 ? Path.of(args[3]) : Files.createTempFile("snake-bridge", ".bin");
+
+        SharedMemoryBridge bridge = new SharedMemoryBridge(file, size, size, waitNanos);
+        if (args.length > 3) {
+            play(bridge, ticks, size, waitNanos);
+            return;
+        }
+        Thread bot = new Thread(() -> {
+            try {
+                runBot(file, Long.MAX_VALUE);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, "bridge-bot");
+        bot.setDaemon(true);
+        bot.start();
+        play(bridge, ticks, size, waitNanos);
+        Files.deleteIfExists(file);
+    }
+
+    private static void play(SharedMemoryBridge bridge, int ticks, int size, long waitNanos) throws IOException {
+        Histogram roundTrip = new Histogram("publish to answer");
+        long games = 1;
+        long foods = 0;
+        GameEngine engine = new GameEngine(size, size, 1, 0, 7);
+        for (int i = 0; i < ticks; i++) {
+            if (!engine.isAlive()) {
+                engine = new GameEngine(size, size, 1, 0, 7 + games);
+                games++;
+            }
+            long start = System.nanoTime();
+            Direction direction = bridge.chooseDirection(engine);
+            roundTrip.record(System.nanoTime() - start);
+            if ((engine.step(direction) & GameEngine.EVENT_ATE) != 0) {
+                foods++;
+            }
+        }
+        bridge.close();
+
+        System.out.printf("%dx%d board, %d ticks, %d games, %d foods eaten%n", size, size, ticks, games, foods);
+        System.out.println(roundTrip);
+        System.out.printf("%d answered, %d missed the %d us wait%n",
+            bridge.getAnswered(), bridge.getMissed(), waitNanos / 1000);
+        if (bridge.getMissed() * 100 > ticks) {
+            System.out.println("FAILED: more than 1% of ticks went unanswered");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * The client side: waits for each new state, reads it under the seqlock
+     * and answers with the safe move closest to the food.
+     */
+    private static void runBot(Path file, long maxAnswers) throws IOException {
+        // The game creates the file, possibly after the bot has started
+        for (int spins = 1; !Files.exists(file) || Files.size(file) < SharedMemoryBridge.CELLS_OFFSET; spins++) {
+            SharedMemoryBridge.spin(spins);
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        for (int spins = 1; buffer.getInt(0) != SharedMemoryBridge.MAGIC; spins++) {
+            SharedMemoryBridge.spin(spins);
+        }
+        VarHandle.acquireFence();
+        int columns = buffer.getInt(SharedMemoryBridge.COLUMNS_OFFSET);
+        int rows = buffer.getInt(SharedMemoryBridge.ROWS_OFFSET);
+        int[] cells = new int[buffer.getInt(SharedMemoryBridge.CAPACITY_OFFSET)];
+        // blocked[cell] == stamp marks the cells of the state being answered
+        int[] blocked = new int[columns * rows];
+        int stamp = 0;
+        long lastAnswered = 0;
+        int spins = 0;
+
+        for (long answers = 0; answers < maxAnswers; ) {
+            long sequence = (long) LONGS.getAcquire(buffer, SharedMemoryBridge.SEQUENCE_OFFSET);
+            if ((sequence & 1) != 0 || sequence == lastAnswered) {
+                SharedMemoryBridge.spin(++spins);
+                continue;
+            }
+            int direction = buffer.getInt(SharedMemoryBridge.DIRECTION_OFFSET);
+            int food = buffer.getInt(SharedMemoryBridge.FOOD_OFFSET);
+            int length = buffer.getInt(SharedMemoryBridge.LENGTH_OFFSET);
+            int barriers = buffer.getInt(SharedMemoryBridge.BARRIER_COUNT_OFFSET);
+            int count = Math.max(0, Math.min(length + barriers, cells.length));
+            for (int i = 0; i < count; i++) {
+                cells[i] = buffer.getInt(SharedMemoryBridge.CELLS_OFFSET + 4 * i);
+            }
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.getAcquire(buffer, SharedMemoryBridge.SEQUENCE_OFFSET) != sequence || length < 1) {
+                continue; // Torn read; try again
+            }
+
+            stamp++;
+            for (int i = 0; i < count; i++) {
+                blocked[cells[i]] = stamp;
+            }
+            int move = chooseMove(cells[0], food, direction, columns, rows, blocked, stamp);
+            LONGS.setRelease(buffer, SharedMemoryBridge.ANSWER_OFFSET, (sequence << 2) | move);
+            lastAnswered = sequence;
+            answers++;
+        }
+    }
+
+    private static int chooseMove(int head, int food, int direction, int columns, int rows,
+                                  int[] blocked, int stamp) {
+        int headX = head % columns;
+        int headY = head / columns;
+        int reverse = GameEngine.opposite(Direction.values()[direction]).ordinal();
+        int best = direction;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int move = 0; move < 4; move++) {
+            int x = headX + (move == 2 ? -1 : move == 3 ? 1 : 0);
+            int y = headY + (move == 0 ? -1 : move == 1 ? 1 : 0);
+            if (move == reverse || x < 0 || x >= columns || y < 0 || y >= rows
+                    || blocked[y * columns + x] == stamp) {
+                continue;
+            }
+            int distance = food < 0 ? 0 : Math.abs(food % columns - x) + Math.abs(food / columns - y);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = move;
+            }
+        }
+        return best;
+    }
+}
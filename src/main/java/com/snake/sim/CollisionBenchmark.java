@@ -0,0 +1,89 @@
+package com.snake.sim;
+
+import com.snake.game.GameEngine;
+import com.snake.bot.BotPolicy;
+import com.snake.bot.HamiltonianPolicy;
+import com.snake.graphics.Direction;
+
+/**
+ * Measures the cost of a tick as snake length and barrier count grow. The
+ * snake follows HamiltonianPolicy so it can get very long without dying;
+ * its moves are planned on a twin engine outside the timed region, so only
+ * the engine's ticks are measured.
+ * Collision checks are one occupancy grid lookup, so the ns/tick figures
+ * should stay flat down each column (longer snakes) and across each row
+ * (more barriers).
+ *
+ * Usage: CollisionBenchmark [boardSize] [ticksPerRun]
+ */
+public class CollisionBenchmark {
+    private static final int[] LENGTHS = {3, 100, 1_000, 10_000, 30_000};
+    private static final int[] LEVELS = {1, 4, 7, 10}; // 0, 15, 30 and 45 barriers
+    private static final BotPolicy POLICY = new HamiltonianPolicy();
+    private static final int BATCH = 10_000;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        // Warm up the tick path before taking any numbers
+        for (int level : LEVELS) {
+            measure(size, level, 1_000, ticks);
+        }
+
+        System.out.printf("%dx%d board, ns/tick%n", size, size);
+        System.out.printf("%10s", "length");
+        for (int level : LEVELS) {
+            System.out.printf("%14s", (level - 1) * 5 + " barriers");
+        }
+        System.out.println();
+        for (int length : LENGTHS) {
+            if (length >= size * size) {
+                continue;
+            }
+            System.out.printf("%10d", length);
+            for (int level : LEVELS) {
+                System.out.printf("%14.1f", measure(size, level, length, ticks));
+            }
+            System.out.println();
+        }
+    }
+
+    // Returns the mean ns per tick, excluding the policy and the time spent resetting after a death or level up
+    private static double measure(int size, int level, int length, int ticks) {
+        // Both engines start from the same seed, so the planner's moves replay exactly on the timed one
+        GameEngine planner = newEngine(size, level, length);
+        GameEngine engine = newEngine(size, level, length);
+        Direction[] directions = new Direction[BATCH];
+        long elapsed = 0;
+        int done = 0;
+        while (done < ticks) {
+            int batch = Math.min(BATCH, ticks - done);
+            int events = GameEngine.EVENT_NONE;
+            int planned = 0;
+            while (planned < batch && (events & (GameEngine.EVENT_DIED | GameEngine.EVENT_LEVEL_UP)) == 0) {
+                directions[planned] = POLICY.chooseDirection(planner);
+                events = planner.step(directions[planned]);
+                planned++;
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < planned; i++) {
+                engine.step(directions[i]);
+            }
+            elapsed += System.nanoTime() - start;
+            done += planned;
+            if ((events & (GameEngine.EVENT_DIED | GameEngine.EVENT_LEVEL_UP)) != 0) {
+                planner = newEngine(size, level, length);
+                engine = newEngine(size, level, length);
+            }
+        }
+        return (double) elapsed / done;
+    }
+
+    private static GameEngine newEngine(int size, int level, int length) {
+        GameEngine engine = new GameEngine(size, size, level, 0, 42);
+        engine.reset(length);
+        return engine;
+    }
+}
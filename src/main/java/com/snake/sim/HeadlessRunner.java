@@ -0,0 +1,58 @@
+package com.snake.sim;
+
+import com.snake.game.GameEngine;
+import com.snake.game.GameRandom;
+import com.snake.bot.BotPolicy;
+import com.snake.bot.GreedyPolicy;
+
+/**
+ * Plays games on the headless engine as fast as possible with a simple greedy
+ * bot and reports ticks per second. Game i uses seed
+ * GameRandom.seedFor(seed, i), and like BatchSimulator a game is cut off
+ * after MAX_TICKS, since the greedy bot can circle forever.
+ *
+ * Usage: HeadlessRunner [level] [seconds] [columns] [rows] [seed]
+ */
+public class HeadlessRunner {
+    private static final long MAX_TICKS = 20_000;
+
+    public static void main(String[] args) {
+        int level = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int columns = args.length > 2 ? Integer.parseInt(args[2]) : 24;
+        int rows = args.length > 3 ? Integer.parseInt(args[3]) : columns;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+
+        // Warm up so the JIT has compiled the tick path before measuring
+        measure(level, columns, rows, seed, 1);
+
+        long start = System.nanoTime();
+        long[] result = measure(level, columns, rows, seed, seconds);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("level %d, %dx%d board, seed %d: %d games, %d ticks in %.2fs = %.0f ticks/s%n",
+            level, columns, rows, seed, result[1], result[0], elapsed, result[0] / elapsed);
+    }
+
+    // Returns {ticks, games} played within the given number of seconds
+    private static long[] measure(int level, int columns, int rows, long seed, int seconds) {
+        long ticks = 0;
+        long games = 0;
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            ticks += run(level, columns, rows, GameRandom.seedFor(seed, games));
+            games++;
+        }
+        return new long[] {ticks, games};
+    }
+
+    private static long run(int level, int columns, int rows, long seed) {
+        GameEngine engine = new GameEngine(columns, rows, level, 0, seed);
+        BotPolicy policy = new GreedyPolicy();
+        long ticks = 0;
+        while (engine.isAlive() && ticks < MAX_TICKS) {
+            engine.step(policy.chooseDirection(engine));
+            ticks++;
+        }
+        return ticks;
+    }
+}
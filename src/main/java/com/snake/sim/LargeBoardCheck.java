@@ -0,0 +1,63 @@
+package com.snake.sim;
+
+import com.snake.bot.BotPolicy;
+import com.snake.bot.GreedyPolicy;
+import com.snake.game.FrameRenderer;
+import com.snake.game.GameEngine;
+import com.snake.game.SnapshotBuffer;
+import com.snake.metrics.Histogram;
+
+/**
+ * Plays a bot on boards of growing size through a 24x24 camera view and
+ * prints the frame time, tick time and grid memory for each. Frame time
+ * should stay flat as the board grows, since only the chunks and sprites in
+ * view are drawn.
+ *
+ * Usage: LargeBoardCheck [ticks] [boardSize...]
+ */
+public class LargeBoardCheck {
+    private static final int VIEW_CELLS = 24;
+    private static final int UNIT_SIZE = 25;
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int[] sizes = {48, 1000, GameEngine.MAX_BOARD_SIZE};
+        if (args.length > 1) {
+            sizes = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                sizes[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+
+        for (int size : sizes) {
+            GameEngine engine = new GameEngine(size, size, 5, 0, 42);
+            SnapshotBuffer snapshots = new SnapshotBuffer();
+            FrameRenderer renderer = new FrameRenderer(size, size, UNIT_SIZE, VIEW_CELLS, VIEW_CELLS);
+            BotPolicy policy = new GreedyPolicy();
+            Histogram tickTime = new Histogram("tick");
+            Histogram frameTime = new Histogram("frame");
+
+            for (int i = 0; i < ticks; i++) {
+                long start = System.nanoTime();
+                if (engine.step(policy.chooseDirection(engine)) == GameEngine.EVENT_DIED) {
+                    engine.reset(GameEngine.DEFAULT_LENGTH);
+                }
+                snapshots.publish(engine);
+                long stepped = System.nanoTime();
+                renderer.update(snapshots, true);
+                long drawn = System.nanoTime();
+                // The first ticks load classes and build sprite caches
+                if (i >= ticks / 10) {
+                    tickTime.record(stepped - start);
+                    frameTime.record(drawn - stepped);
+                }
+            }
+
+            System.out.printf("%dx%d board, snake length %d, grid pages %d KB, free cells %s%n",
+                size, size, engine.getSnakeLength(), engine.getGrid().getAllocatedBytes() / 1024,
+                engine.getFreeCells().isSparse() ? "sparse" : "dense");
+            System.out.println("  " + tickTime);
+            System.out.println("  " + frameTime);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.snake.sim;
+
+import com.snake.bot.BotPolicy;
+import com.snake.bot.GreedyPolicy;
+import com.snake.game.GameEngine;
+import com.snake.game.GameLoop;
+
+/**
+ * Drives the headless engine from a GameLoop at a level's tick rate and
+ * prints the tick-interval jitter histogram.
+ *
+ * Usage: LoopJitterCheck [level] [seconds]
+ */
+public class LoopJitterCheck {
+    public static void main(String[] args) throws InterruptedException {
+        int level = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        GameEngine engine = new GameEngine(24, 24, level, 0, System.nanoTime());
+        BotPolicy policy = new GreedyPolicy();
+        GameLoop loop = new GameLoop("jitter-check", GameEngine.getTickDelay(level), () -> {
+            if (engine.step(policy.chooseDirection(engine)) == GameEngine.EVENT_DIED) {
+                engine.reset(GameEngine.DEFAULT_LENGTH);
+            }
+        });
+        loop.start();
+        loop.resume();
+        Thread.sleep(seconds * 1000L);
+        loop.stop();
+
+        System.out.printf("level %d, period %d ms%n", level, GameEngine.getTickDelay(level));
+        System.out.println(loop.getJitterHistogram());
+    }
+}
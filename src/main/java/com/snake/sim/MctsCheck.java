@@ -0,0 +1,67 @@
+package com.snake.sim;
+
+import com.snake.bot.MctsPolicy;
+import com.snake.game.GameEngine;
+import com.snake.graphics.Direction;
+import com.snake.metrics.Histogram;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Plays MctsPolicy games and prints the decision time histogram, the
+ * simulations run per decision and how full the transposition table got.
+ * The first WARM_UP_DECISIONS are left out, as they include compiling the
+ * search. Exits with status 1 if any other decision overshoots its budget
+ * by more than TOLERANCE_NANOS.
+ *
+ * Usage: MctsCheck [boardSize] [decisions] [threads] [budgetMillis]
+ */
+public class MctsCheck {
+    private static final int WARM_UP_DECISIONS = 20;
+    // Waking the caller at its deadline, plus a lost time slice on a busy machine
+    private static final long TOLERANCE_NANOS = 5_000_000L;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 24;
+        int decisions = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long budgetNanos = args.length > 3
+            ? Long.parseLong(args[3]) * 1_000_000L : MctsPolicy.DEFAULT_BUDGET_NANOS;
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        MctsPolicy policy = new MctsPolicy(pool, budgetNanos, MctsPolicy.DEFAULT_TABLE_SIZE, 1);
+        Histogram decisionTime = new Histogram("decision");
+        Histogram simulations = new Histogram("simulations", "", 1);
+        long games = 1;
+        long foods = 0;
+        GameEngine engine = new GameEngine(size, size, 1, 0, 7);
+        for (int i = 0; i < WARM_UP_DECISIONS + decisions; i++) {
+            if (!engine.isAlive()) {
+                engine = new GameEngine(size, size, 1, 0, 7 + games);
+                games++;
+            }
+            long start = System.nanoTime();
+            Direction direction = policy.chooseDirection(engine);
+            if (i >= WARM_UP_DECISIONS) {
+                decisionTime.record(System.nanoTime() - start);
+                simulations.record(policy.getLastSimulations());
+            }
+            if ((engine.step(direction) & GameEngine.EVENT_ATE) != 0) {
+                foods++;
+            }
+        }
+        pool.shutdown();
+
+        System.out.printf("%dx%d board, %d threads, %.1f ms budget: %d decisions, %d games, %d foods eaten%n",
+            size, size, threads, budgetNanos / 1e6, decisions, games, foods);
+        System.out.println(decisionTime);
+        System.out.println(simulations);
+        System.out.printf("table: %d slots, %d replacements%n",
+            policy.getTable().getCapacity(), policy.getTable().getReplacements());
+        if (decisionTime.getMax() > budgetNanos + TOLERANCE_NANOS) {
+            System.out.printf("FAILED: a decision took over %.1f ms, the budget plus %.1f ms%n",
+                (budgetNanos + TOLERANCE_NANOS) / 1e6, TOLERANCE_NANOS / 1e6);
+            System.exit(1);
+        }
+    }
+}
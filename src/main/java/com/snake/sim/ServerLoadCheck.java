@@ -0,0 +1,199 @@
+package com.snake.sim;
+
+import com.snake.game.GameRandom;
+import com.snake.metrics.Histogram;
+import com.snake.server.GameServer;
+import com.snake.server.Protocol;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test for GameServer on localhost. Starts a server on a free port and
+ * connects simulated players from one NIO client thread: each joins its
+ * room, reads every snapshot and now and then sends a random turn. After a
+ * warm-up of WARM_UP_SECONDS the server's histograms are cleared, and at the
+ * end it prints the snapshots received, the rooms that got none, the
+ * server's tick lateness, the room tick times and the spread of per-room p99
+ * tick times. GameServerTest checks the same figures on a small load.
+ *
+ * The clients share the machine with the server, so on few cores a room
+ * tick now and then includes the clients' time slice. A short run has few
+ * ticks per room, which makes a single room's p99 close to its worst tick.
+ *
+ * Usage: ServerLoadCheck [rooms] [playersPerRoom] [seconds]
+ */
+public class ServerLoadCheck {
+    // New connections per pass of the client loop, to stay inside the accept backlog
+    private static final int CONNECTS_PER_PASS = 200;
+    private static final int WARM_UP_SECONDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int roomCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        GameServer server = new GameServer(new InetSocketAddress("127.0.0.1", 0), players, 24, 24, roomCount, 1);
+        Thread serverThread = new Thread(server, "snake-server");
+        serverThread.start();
+
+        Clients clients = new Clients(new InetSocketAddress("127.0.0.1", server.getPort()), roomCount, players);
+        // Connecting everyone and compiling the tick path would otherwise dominate each room's p99
+        clients.run(System.nanoTime() + TimeUnit.SECONDS.toNanos(WARM_UP_SECONDS));
+        server.resetStats();
+        clients.resetCounts();
+        clients.run(System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds));
+        server.stop();
+        serverThread.join();
+        clients.close();
+
+        Histogram roomTicks = server.getRoomTickTime();
+        Histogram roomP99s = server.getRoomTickP99();
+        long ticks = roomTicks.getCount();
+        double elapsed = seconds;
+        System.out.printf("%d rooms x %d players: %d joined, %d turned away, %d room ticks in %ds (%.0f/s)%n",
+            roomCount, players, clients.joined, clients.full, ticks, seconds, ticks / elapsed);
+        System.out.printf("%d snapshots received (%.0f/s, %.1f MB/s), %d dropped by the server%n",
+            clients.snapshots, clients.snapshots / elapsed, clients.bytes / elapsed / 1e6,
+            server.getDroppedSnapshots());
+        System.out.println(server.getTickLateness());
+        System.out.println(roomTicks);
+        System.out.printf("room p99 tick: median %.1fus, 99th percentile of rooms %.1fus, worst %.1fus%n",
+            roomP99s.getP50() / 1e3, roomP99s.getP99() / 1e3, roomP99s.getMax() / 1e3);
+        System.out.printf("%d of %d rooms ran, %d got no snapshots%n",
+            roomP99s.getCount(), roomCount, clients.silentRooms());
+    }
+
+    // Every simulated player, driven from one selector on the calling thread
+    private static class Clients {
+        private final InetSocketAddress address;
+        private final int players;
+        private final Selector selector = Selector.open();
+        private final SocketChannel[] channels;
+        private final ByteBuffer[] inputs;
+        private final long[] roomSnapshots;
+        private final ByteBuffer out = ByteBuffer.allocate(16);
+        private final GameRandom random = new GameRandom(3);
+        private int connected;
+        long joined;
+        long full;
+        long snapshots;
+        long bytes;
+
+        Clients(InetSocketAddress address, int rooms, int players) throws IOException {
+            this.address = address;
+            this.players = players;
+            this.channels = new SocketChannel[rooms * players];
+            this.inputs = new ByteBuffer[rooms * players];
+            this.roomSnapshots = new long[rooms];
+        }
+
+        void run(long end) throws IOException {
+            while (System.nanoTime() < end) {
+                for (int i = 0; i < CONNECTS_PER_PASS && connected < channels.length; i++, connected++) {
+                    SocketChannel channel = SocketChannel.open();
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    channel.connect(address);
+                    channels[connected] = channel;
+                    inputs[connected] = ByteBuffer.allocate(8192);
+                    channel.register(selector, SelectionKey.OP_CONNECT, connected);
+                }
+                selector.select(10);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    int client = (Integer) key.attachment();
+                    if (key.isValid() && key.isConnectable()) {
+                        connect(key, client);
+                    } else if (key.isValid() && key.isReadable()) {
+                        read(key, client);
+                    }
+                }
+            }
+        }
+
+        private void connect(SelectionKey key, int client) throws IOException {
+            SocketChannel channel = channels[client];
+            if (!channel.finishConnect()) {
+                return;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            out.clear();
+            int start = Protocol.beginFrame(out, Protocol.JOIN);
+            out.putInt(client / players);
+            Protocol.endFrame(out, start);
+            out.flip();
+            channel.write(out);
+        }
+
+        private void read(SelectionKey key, int client) throws IOException {
+            ByteBuffer in = inputs[client];
+            int read = channels[client].read(in);
+            if (read < 0) {
+                key.cancel();
+                return;
+            }
+            bytes += read;
+            in.flip();
+            while (in.remaining() >= Protocol.HEADER) {
+                int length = Short.toUnsignedInt(in.getShort(in.position()));
+                if (in.remaining() < Protocol.HEADER + length) {
+                    break;
+                }
+                byte type = in.get(in.position() + Protocol.HEADER);
+                in.position(in.position() + Protocol.HEADER + length);
+                if (type == Protocol.WELCOME) {
+                    joined++;
+                } else if (type == Protocol.FULL) {
+                    full++;
+                } else if (type == Protocol.SNAPSHOT) {
+                    snapshots++;
+                    roomSnapshots[client / players]++;
+                    // A turn every few snapshots, like a player would
+                    if (random.nextInt(4) == 0) {
+                        out.clear();
+                        int start = Protocol.beginFrame(out, Protocol.INPUT);
+                        out.put((byte) random.nextInt(4));
+                        Protocol.endFrame(out, start);
+                        out.flip();
+                        channels[client].write(out);
+                    }
+                }
+            }
+            in.compact();
+        }
+
+        void resetCounts() {
+            snapshots = 0;
+            bytes = 0;
+            Arrays.fill(roomSnapshots, 0);
+        }
+
+        int silentRooms() {
+            int silent = 0;
+            for (long count : roomSnapshots) {
+                if (count == 0) {
+                    silent++;
+                }
+            }
+            return silent;
+        }
+
+        void close() throws IOException {
+            for (int i = 0; i < connected; i++) {
+                channels[i].close();
+            }
+            selector.close();
+        }
+    }
+}
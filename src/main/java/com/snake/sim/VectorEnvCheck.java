@@ -0,0 +1,113 @@
+package com.snake.sim;
+
+import com.snake.game.GameEngine;
+import com.snake.game.VectorEnv;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Steps a VectorEnv with a bot that reads only the observations (turn
+ * towards the food unless that is deadly) and prints env-steps per second
+ * and the bytes allocated per step by it and the pool's workers, measured
+ * with ThreadMXBean. The pool's own bookkeeping allocates a few hundred
+ * bytes now and then. VectorEnvTest checks the games against GameEngine.
+ *
+ * Usage: VectorEnvCheck [envs] [steps] [threads] [boardSize] [level]
+ */
+public class VectorEnvCheck {
+    public static void main(String[] args) {
+        int envs = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int size = args.length > 3 ? Integer.parseInt(args[3]) : 12;
+        int level = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+
+        com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        VectorEnv env = new VectorEnv(envs, size, size, level, 1_000, 1, pool);
+        int[] actions = new int[envs];
+        long[] totals = new long[2];
+
+        // Warm up so the JIT has compiled the step path before measuring
+        run(env, actions, steps / 10, totals);
+        totals[0] = totals[1] = 0;
+        long[] threadIds = steppingThreads();
+        long bytes = allocatedBytes(threadBean, threadIds);
+        double elapsed = run(env, actions, steps, totals) / 1e9;
+        bytes = allocatedBytes(threadBean, threadIds) - bytes;
+        if (pool != null) {
+            pool.shutdown();
+        }
+
+        long envSteps = (long) envs * steps;
+        System.out.printf("%d envs, %dx%d board, level %d, %d threads: %d env-steps in %.2fs = %.0f env-steps/s%n",
+            envs, size, size, level, threads, envSteps, elapsed, envSteps / elapsed);
+        System.out.printf("%d foods eaten, %d episodes ended%n", totals[0], totals[1]);
+        System.out.printf("%d bytes allocated while stepping, %.4f bytes/step%n", bytes, (double) bytes / steps);
+    }
+
+    // Adds foods eaten to totals[0] and episodes ended to totals[1]; returns the nanoseconds taken.
+    // The clock is read in here so the warm-up has already linked those calls, which allocates
+    private static long run(VectorEnv env, int[] actions, int steps, long[] totals) {
+        long start = System.nanoTime();
+        float[] observations = env.getObservations();
+        int[] events = env.getEvents();
+        for (int step = 0; step < steps; step++) {
+            for (int i = 0; i < actions.length; i++) {
+                actions[i] = chooseAction(observations, i * VectorEnv.OBSERVATION_SIZE);
+            }
+            env.step(actions);
+            for (int event : events) {
+                if ((event & GameEngine.EVENT_ATE) != 0) {
+                    totals[0]++;
+                }
+                if ((event & (GameEngine.EVENT_DIED | VectorEnv.EVENT_TRUNCATED)) != 0) {
+                    totals[1]++;
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    // The first safe move that closes the food offset, else any safe move
+    private static int chooseAction(float[] observations, int base) {
+        float dx = observations[base + 8];
+        float dy = observations[base + 9];
+        int preferred = dy < 0 ? 0 : dy > 0 ? 1 : dx < 0 ? 2 : 3;
+        if (observations[base + preferred] == 0f) {
+            return preferred;
+        }
+        for (int direction = 0; direction < 4; direction++) {
+            if (observations[base + direction] == 0f) {
+                return direction;
+            }
+        }
+        return VectorEnv.NO_ACTION;
+    }
+
+    // This thread and the pool's workers, which the warm-up has started
+    private static long[] steppingThreads() {
+        Thread[] workers = Thread.getAllStackTraces().keySet().stream()
+            .filter(thread -> thread instanceof ForkJoinWorkerThread)
+            .toArray(Thread[]::new);
+        long[] ids = new long[workers.length + 1];
+        ids[0] = Thread.currentThread().getId();
+        for (int i = 0; i < workers.length; i++) {
+            ids[i + 1] = workers[i].getId();
+        }
+        return ids;
+    }
+
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threadBean, long[] threadIds) {
+        long total = 0;
+        for (long id : threadIds) {
+            total += Math.max(0, threadBean.getThreadAllocatedBytes(id));
+        }
+        return total;
+    }
+}
@@ -330,6 +330,7 @@ public class GameFrame extends JFrame {
                 gamePanel.getCurrentScore()
             );
         }
+        gamePanel.shutdown();
         soundManager.stopBackgroundMusic();
         dispose();
         menuFrame.showMenu();
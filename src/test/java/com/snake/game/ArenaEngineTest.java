@@ -0,0 +1,171 @@
+package com.snake.game;
+
+import com.snake.bot.ArenaGreedyPolicy;
+import com.snake.graphics.Direction;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks ArenaEngine's simultaneous moves on hand-built boards, and that
+ * the shared grid stays in sync with the snakes over long bot games.
+ */
+class ArenaEngineTest {
+    private static final int SIZE = 8;
+
+    @Test
+    void headsEnteringTheSameCellBothDie() {
+        ArenaEngine arena = emptyArena(SIZE, 2);
+        arena.place(0, Direction.RIGHT, 0, cell(2, 3), cell(1, 3));
+        arena.place(1, Direction.LEFT, 0, cell(4, 3), cell(5, 3));
+
+        assertEquals(2, arena.step());
+        assertEquals(2, arena.getDeaths());
+        assertRespawned(arena, 0);
+        assertRespawned(arena, 1);
+        assertConsistent(arena);
+    }
+
+    @Test
+    void headsSwappingCellsBothDie() {
+        ArenaEngine arena = emptyArena(SIZE, 2);
+        arena.place(0, Direction.RIGHT, 0, cell(2, 3), cell(1, 3));
+        arena.place(1, Direction.LEFT, 0, cell(3, 3), cell(4, 3));
+
+        assertEquals(2, arena.step());
+        assertConsistent(arena);
+    }
+
+    @Test
+    void followingAnotherSnakesTailIsSafe() {
+        ArenaEngine arena = emptyArena(SIZE, 2);
+        arena.place(0, Direction.RIGHT, 0, cell(3, 3), cell(2, 3), cell(1, 3));
+        arena.place(1, Direction.UP, 0, cell(4, 1), cell(4, 2), cell(4, 3));
+
+        assertEquals(0, arena.step());
+        assertEquals(cell(4, 3), arena.getHead(0));
+        assertEquals(cell(4, 0), arena.getHead(1));
+        assertEquals(3, arena.getSnakeLength(0));
+        assertConsistent(arena);
+    }
+
+    @Test
+    void aGrowingTailStaysInTheWay() {
+        ArenaEngine arena = emptyArena(SIZE, 2);
+        arena.place(0, Direction.RIGHT, 0, cell(3, 3), cell(2, 3), cell(1, 3));
+        arena.place(1, Direction.UP, 1, cell(4, 1), cell(4, 2), cell(4, 3));
+
+        assertEquals(1, arena.step());
+        assertEquals(4, arena.getSnakeLength(1));
+        assertRespawned(arena, 0);
+        assertConsistent(arena);
+    }
+
+    @Test
+    void respawnWaitsForAFreeCell() {
+        // Snake 0 fills a 4x4 board along a Hamiltonian cycle while snake 1 waits off the board
+        int[] cycle = {
+            cell(0, 0, 4), cell(1, 0, 4), cell(2, 0, 4), cell(3, 0, 4),
+            cell(3, 1, 4), cell(3, 2, 4), cell(3, 3, 4), cell(2, 3, 4),
+            cell(1, 3, 4), cell(0, 3, 4), cell(0, 2, 4), cell(1, 2, 4),
+            cell(2, 2, 4), cell(2, 1, 4), cell(1, 1, 4), cell(0, 1, 4)
+        };
+        int[] body = new int[15];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = cycle[14 - i];
+        }
+        ArenaEngine arena = emptyArena(4, 2);
+        arena.place(0, Direction.LEFT, 1, body);
+
+        // Growing into the last free cell fills the board
+        assertEquals(0, arena.step());
+        assertEquals(16, arena.getSnakeLength(0));
+        assertWaiting(arena, 1);
+
+        // Moving into its own tail keeps it full
+        arena.turn(0, Direction.UP);
+        assertEquals(0, arena.step());
+        assertEquals(cycle[0], arena.getHead(0));
+        assertWaiting(arena, 1);
+        assertConsistent(arena);
+
+        // Running into the wall frees the board, and both snakes respawn in the same tick
+        assertEquals(1, arena.step());
+        assertRespawned(arena, 0);
+        assertRespawned(arena, 1);
+        assertConsistent(arena);
+    }
+
+    @Test
+    void gridMatchesTheSnakesThroughBotGames() {
+        ArenaEngine arena = new ArenaEngine(60, 60, 100, 50, 42);
+        ArenaEngine levelling = new ArenaEngine(30, 30, 20, 10, 1, true, 7);
+        ArenaGreedyPolicy policy = new ArenaGreedyPolicy();
+        for (int i = 0; i < 2_000; i++) {
+            for (ArenaEngine engine : new ArenaEngine[] {arena, levelling}) {
+                policy.steerBots(engine);
+                engine.turn(ArenaEngine.PLAYER, policy.chooseDirection(engine, ArenaEngine.PLAYER));
+                engine.step();
+                assertConsistent(engine);
+            }
+        }
+        assertTrue(arena.getDeaths() > 0, "no snake died");
+    }
+
+    // An arena with every snake taken off the board and no food
+    private static ArenaEngine emptyArena(int size, int snakes) {
+        ArenaEngine arena = new ArenaEngine(size, size, snakes, 0, 1);
+        for (int i = 0; i < snakes; i++) {
+            arena.place(i, Direction.RIGHT, 0);
+        }
+        return arena;
+    }
+
+    private static int cell(int x, int y) {
+        return cell(x, y, SIZE);
+    }
+
+    private static int cell(int x, int y, int columns) {
+        return y * columns + x;
+    }
+
+    private static void assertRespawned(ArenaEngine arena, int snake) {
+        assertTrue(arena.isAlive(snake), "snake " + snake + " alive");
+        assertEquals(1, arena.getSnakeLength(snake), "length of respawned snake " + snake);
+    }
+
+    private static void assertWaiting(ArenaEngine arena, int snake) {
+        assertFalse(arena.isAlive(snake), "snake " + snake + " alive");
+        assertEquals(0, arena.getSnakeLength(snake), "length of waiting snake " + snake);
+    }
+
+    // Every SNAKE cell belongs to exactly one segment and every FOOD cell to one food
+    private static void assertConsistent(ArenaEngine arena) {
+        OccupancyGrid grid = arena.getGrid();
+        int segments = 0;
+        for (int i = 0; i < arena.getSnakeCount(); i++) {
+            for (int j = 0; j < arena.getSnakeLength(i); j++) {
+                assertEquals(OccupancyGrid.SNAKE, grid.get(arena.getSnakeCell(i, j)),
+                    "segment " + j + " of snake " + i + " at tick " + arena.getTicks());
+                segments++;
+            }
+        }
+        for (int i = 0; i < arena.getFoodCount(); i++) {
+            assertEquals(OccupancyGrid.FOOD, grid.get(arena.getFood(i)), "food " + i + " at tick " + arena.getTicks());
+        }
+        int snakeCells = 0;
+        int foodCells = 0;
+        for (int cell = 0; cell < grid.size(); cell++) {
+            byte content = grid.get(cell);
+            if (content == OccupancyGrid.SNAKE) {
+                snakeCells++;
+            } else if (content == OccupancyGrid.FOOD) {
+                foodCells++;
+            }
+        }
+        assertEquals(segments, snakeCells, "snake cells at tick " + arena.getTicks());
+        assertEquals(arena.getFoodCount(), foodCells, "food cells at tick " + arena.getTicks());
+    }
+}
@@ -0,0 +1,96 @@
+package com.snake.game;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that GamePanel.paintComponent allocates nothing per frame once
+ * compiled. The autopilot plays on the default board; after every tick the
+ * panel is painted into an offscreen image, paused every other frame so the
+ * overlay is drawn too. Full redraws after a death or level change rebuild
+ * the cached background and are not counted.
+ *
+ * The first WARM_UP_ROUNDS let the JIT compile and inline the paint path;
+ * every round after that must allocate nothing.
+ */
+class GamePanelPaintAllocationTest {
+    private static final int FRAMES_PER_ROUND = 500;
+    private static final int WARM_UP_ROUNDS = 10;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private GamePanel panel;
+    private BufferedImage screen;
+    private Graphics2D g2d;
+
+    @BeforeEach
+    void setUp() {
+        threads.setThreadAllocatedMemoryEnabled(true);
+        System.setProperty("snake.autopilot", "true");
+        panel = new GamePanel(null, 5, 0, false);
+        // The test ticks the panel itself, so the loop thread must never run one
+        panel.getGameLoop().stop();
+        panel.startGame();
+        screen = new BufferedImage(panel.getPreferredSize().width, panel.getPreferredSize().height,
+            BufferedImage.TYPE_INT_RGB);
+        g2d = screen.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        g2d.dispose();
+        System.clearProperty("snake.autopilot");
+    }
+
+    @Test
+    void paintComponentAllocatesNothingOnceWarmedUp() {
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            paintRound();
+        }
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            assertEquals(0, paintRound(), "bytes allocated by measured round " + round
+                + " of " + FRAMES_PER_ROUND + " paints");
+        }
+        assertTrue(panel.getPaintTimeHistogram().getCount() > 0, "paintComponent drew no frames");
+    }
+
+    // Ticks and paints FRAMES_PER_ROUND frames; returns the bytes allocated by incremental paints
+    private long paintRound() {
+        long fullFrame = (long) screen.getWidth() * screen.getHeight();
+        long bytes = 0;
+        for (int i = 0; i < FRAMES_PER_ROUND; i++) {
+            if ((panel.advance() & GameEngine.EVENT_DIED) != 0) {
+                // resetGame() updates the GameFrame, which this test has none of
+                synchronized (panel.getEngine()) {
+                    panel.getEngine().reset(GameEngine.DEFAULT_LENGTH);
+                }
+                panel.startGame();
+            }
+            if ((i & 1) == 0) {
+                panel.pauseGame();
+            }
+
+            long before = threads.getCurrentThreadAllocatedBytes();
+            panel.paintComponent(g2d);
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+            panel.resumeGame();
+            if (panel.getFrameRenderer().getLastPixels() != fullFrame) {
+                bytes += allocated;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,138 @@
+package com.snake.game;
+
+import com.snake.bot.BotPolicy;
+import com.snake.bot.GreedyPolicy;
+import com.snake.graphics.Direction;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Steps a VectorEnv and one GameEngine per game side by side on the same
+ * seeds and turns, and checks that every game stays identical to its
+ * engine through deaths, level ups and truncated episodes.
+ */
+class VectorEnvTest {
+    private static final int ENVS = 16;
+    private static final int SIZE = 12;
+    private static final int STEPS = 3_000;
+    private static final int MAX_EPISODE_STEPS = 400;
+    private static final long SEED = 1;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    @Test
+    void gamesMatchGameEngineFromLevelOne() {
+        playSideBySide(1, null);
+    }
+
+    @Test
+    void gamesMatchGameEngineWithBarriers() {
+        playSideBySide(4, null);
+    }
+
+    @Test
+    void gamesMatchGameEngineInAPool() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            playSideBySide(2, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void stepAllocatesNothingOnceWarmedUp() {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        VectorEnv env = new VectorEnv(256, SIZE, SIZE, 1, MAX_EPISODE_STEPS, SEED, null);
+        int[] actions = new int[env.getCount()];
+        for (int i = 0; i < 5_000; i++) {
+            step(env, actions, i);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 1_000; i++) {
+            step(env, actions, i);
+        }
+        assertEquals(0, threads.getCurrentThreadAllocatedBytes() - before, "bytes allocated by 1000 steps");
+    }
+
+    private static void step(VectorEnv env, int[] actions, int step) {
+        for (int i = 0; i < actions.length; i++) {
+            actions[i] = (step + i) % 7 < DIRECTIONS.length ? (step + i) % 7 : VectorEnv.NO_ACTION;
+        }
+        env.step(actions);
+    }
+
+    private static void playSideBySide(int level, ForkJoinPool pool) {
+        VectorEnv env = new VectorEnv(ENVS, SIZE, SIZE, level, MAX_EPISODE_STEPS, SEED, pool);
+        GameEngine[] engines = new GameEngine[ENVS];
+        for (int i = 0; i < ENVS; i++) {
+            engines[i] = new GameEngine(SIZE, SIZE, level, 0, GameRandom.seedFor(SEED, i));
+            assertSameGame(env, i, engines[i], "start");
+        }
+
+        // Mostly greedy so games eat and level up, with a random turn now and then so they also die
+        BotPolicy policy = new GreedyPolicy();
+        GameRandom random = new GameRandom(99);
+        int[] actions = new int[ENVS];
+        int levelUps = 0;
+        int deaths = 0;
+        for (int step = 0; step < STEPS; step++) {
+            for (int i = 0; i < ENVS; i++) {
+                Direction direction = random.nextInt(10) == 0
+                    ? DIRECTIONS[random.nextInt(DIRECTIONS.length)] : policy.chooseDirection(engines[i]);
+                actions[i] = direction == null ? VectorEnv.NO_ACTION : direction.ordinal();
+            }
+            env.step(actions);
+            for (int i = 0; i < ENVS; i++) {
+                GameEngine engine = engines[i];
+                if (actions[i] != VectorEnv.NO_ACTION) {
+                    engine.turn(DIRECTIONS[actions[i]]);
+                }
+                int events = engine.step();
+                String where = "game " + i + " at step " + step;
+                assertEquals(events, env.getEvents()[i] & ~VectorEnv.EVENT_TRUNCATED, "events of " + where);
+                levelUps += (events & GameEngine.EVENT_LEVEL_UP) != 0 ? 1 : 0;
+                deaths += (events & GameEngine.EVENT_DIED) != 0 ? 1 : 0;
+                if ((env.getEvents()[i] & (GameEngine.EVENT_DIED | VectorEnv.EVENT_TRUNCATED)) != 0) {
+                    // VectorEnv's autoreset: back to the start level at score 0
+                    engine.setLevel(level);
+                    engine.setScore(0);
+                    engine.reset(GameEngine.DEFAULT_LENGTH);
+                }
+                assertSameGame(env, i, engine, where);
+            }
+        }
+        assertTrue(levelUps > 0, "no game levelled up");
+        assertTrue(deaths > 0, "no game died");
+    }
+
+    private static void assertSameGame(VectorEnv env, int i, GameEngine engine, String where) {
+        assertEquals(engine.getSnakeLength(), env.getLength(i), "length of " + where);
+        for (int j = 0; j < engine.getSnakeLength(); j++) {
+            assertEquals(engine.getSnakeCell(j), env.getSnakeCell(i, j), "segment " + j + " of " + where);
+        }
+        assertEquals(engine.getDirection(), env.getDirection(i), "direction of " + where);
+        assertEquals(engine.getFood(), env.getFood(i), "food of " + where);
+        assertEquals(engine.getFoodType(), env.getFoodType(i), "food type of " + where);
+        assertEquals(engine.getLevel(), env.getLevel(i), "level of " + where);
+        assertEquals(engine.getScore(), env.getScore(i), "score of " + where);
+
+        int barriers = 0;
+        for (int cell = 0; cell < SIZE * SIZE; cell++) {
+            if (env.getCell(i, cell) == OccupancyGrid.BARRIER) {
+                barriers++;
+            }
+        }
+        assertEquals(engine.getBarrierCount(), barriers, "barriers of " + where);
+        for (int j = 0; j < engine.getBarrierCount(); j++) {
+            assertEquals(OccupancyGrid.BARRIER, env.getCell(i, engine.getBarrierCell(j)),
+                "barrier " + j + " of " + where);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.snake.server;
+
+import com.snake.game.GameEngine;
+import com.snake.metrics.Histogram;
+import com.snake.metrics.Metrics;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a GameServer on localhost with a few rooms of blocking clients and
+ * checks that every room runs and sends snapshots, that each room's tick
+ * histogram is registered while it is open, and that the p99 room tick stays
+ * under a tenth of the level 10 tick. ServerLoadCheck drives the same server
+ * with far more rooms when measuring.
+ */
+class GameServerTest {
+    private static final int ROOMS = 8;
+    private static final int PLAYERS = 2;
+    private static final int WARM_UP_SNAPSHOTS = 5;
+    private static final int SNAPSHOTS = 10;
+
+    @Test
+    void roomsRunAndTickWellWithinTheirPeriod() throws Exception {
+        GameServer server = new GameServer(new InetSocketAddress("127.0.0.1", 0), PLAYERS, 24, 24, ROOMS, 1);
+        Thread thread = new Thread(server, "snake-server");
+        thread.start();
+        MBeanServer beans = ManagementFactory.getPlatformMBeanServer();
+        SocketChannel[] clients = new SocketChannel[ROOMS * PLAYERS];
+        ByteBuffer[] inputs = new ByteBuffer[clients.length];
+        try {
+            for (int i = 0; i < clients.length; i++) {
+                clients[i] = SocketChannel.open(new InetSocketAddress("127.0.0.1", server.getPort()));
+                inputs[i] = ByteBuffer.allocate(1 << 16).flip();
+                join(clients[i], i / PLAYERS);
+                assertEquals(Protocol.WELCOME, readFrame(clients[i], inputs[i]), "reply to client " + i);
+            }
+            for (int room = 0; room < ROOMS; room++) {
+                assertTrue(beans.isRegistered(roomHistogramName(room)), "room " + room + " tick registered");
+            }
+
+            // Compiling the tick path would otherwise dominate the p99
+            for (int i = 0; i < clients.length; i++) {
+                readSnapshots(clients[i], inputs[i], WARM_UP_SNAPSHOTS);
+            }
+            server.resetStats();
+            for (int i = 0; i < clients.length; i++) {
+                readSnapshots(clients[i], inputs[i], SNAPSHOTS);
+            }
+        } finally {
+            for (SocketChannel client : clients) {
+                if (client != null) {
+                    client.close();
+                }
+            }
+            server.stop();
+            thread.join();
+        }
+
+        assertNull(server.getFailure());
+        Histogram roomTicks = server.getRoomTickTime();
+        assertEquals(ROOMS, server.getRoomTickP99().getCount(), "rooms that ticked");
+        long limit = TimeUnit.MILLISECONDS.toNanos(GameEngine.getTickDelay(GameEngine.MAX_LEVEL)) / 10;
+        assertTrue(roomTicks.getP99() < limit, roomTicks.toString());
+        for (int room = 0; room < ROOMS; room++) {
+            assertFalse(beans.isRegistered(roomHistogramName(room)), "room " + room + " tick still registered");
+        }
+    }
+
+    private static ObjectName roomHistogramName(int room) throws Exception {
+        return new ObjectName(Metrics.DOMAIN + ":type=Histogram,name=" + ObjectName.quote("room " + room + " tick"));
+    }
+
+    private static void join(SocketChannel client, int room) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(16);
+        int start = Protocol.beginFrame(out, Protocol.JOIN);
+        out.putInt(room);
+        Protocol.endFrame(out, start);
+        out.flip();
+        while (out.hasRemaining()) {
+            client.write(out);
+        }
+    }
+
+    private static void readSnapshots(SocketChannel client, ByteBuffer in, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            assertEquals(Protocol.SNAPSHOT, readFrame(client, in));
+        }
+    }
+
+    // Reads the next whole frame, blocking as needed, and returns its type; in is left in read mode
+    private static byte readFrame(SocketChannel client, ByteBuffer in) throws IOException {
+        while (in.remaining() < Protocol.HEADER
+                || in.remaining() < Protocol.HEADER + Short.toUnsignedInt(in.getShort(in.position()))) {
+            in.compact();
+            int read = client.read(in);
+            in.flip();
+            if (read < 0) {
+                throw new IOException("Server closed the connection");
+            }
+        }
+        int length = Short.toUnsignedInt(in.getShort(in.position()));
+        byte type = in.get(in.position() + Protocol.HEADER);
+        in.position(in.position() + Protocol.HEADER + length);
+        return type;
+    }
+}